@@ -0,0 +1,126 @@
+package Algorithm.Sorting.QuickSort;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * ForkJoinPool 위에서 도는 병렬 퀵 소트.
+ *
+ * QuickSort.selectPivot 으로 pivot 을 고르고 QuickSort.partition 으로 나눈 뒤 두 부분 배열이 threshold 보다 크면 한쪽을 fork 하고 다른 쪽은 현재 스레드가 이어서 처리한다.
+ * threshold 이하가 되면 QuickSort.quickSort 로 순차 정렬한다.
+ * QuickSort 와 같이 분할이 2·log N 번을 넘게 이어지면 남은 구간은 QuickSort.heapSort 로 끝내므로 ninther 를 속이는 입력에도 O(N log N) 이다.
+ * 두 부분 배열은 겹치지 않으므로 같은 배열에 동시에 써도 잠금이 필요 없다.
+ */
+public class ParallelQuickSort {
+	public static final int DEFAULT_THRESHOLD = 1 << 13;
+
+	public static void sort(int[] arr) {
+		sort(arr, 0, arr.length - 1, DEFAULT_THRESHOLD, ForkJoinPool.commonPool());
+	}
+
+	/** arr[start..end] 를 pool 에서 정렬한다. 길이가 threshold 이하인 부분 배열은 나누지 않고 순차 정렬한다. */
+	public static void sort(int[] arr, int start, int end, int threshold, ForkJoinPool pool) {
+		if(threshold < 1) {
+			throw new IllegalArgumentException("threshold must be positive: " + threshold);
+		}
+		if(start >= end) return;
+		int depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(end - start + 1));
+		pool.invoke(new SortTask(arr, start, end, threshold, depthLimit));
+	}
+
+	private static class SortTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int[] arr;
+		private final int start;
+		private final int end;
+		private final int threshold;
+		private final int depthLimit;     // 이 구간에서 더 나눌 수 있는 횟수. 0 이 되면 힙 정렬로 끝낸다.
+		private SortTask next;     // 같은 작업이 fork 한 작업들을 잇는다. 끝날 때 모두 join 한다.
+
+		SortTask(int[] arr, int start, int end, int threshold, int depthLimit) {
+			this.arr = arr;
+			this.start = start;
+			this.end = end;
+			this.threshold = threshold;
+			this.depthLimit = depthLimit;
+		}
+
+		@Override
+		protected void compute() {
+			int start = this.start, end = this.end, depthLimit = this.depthLimit;
+			SortTask forked = null;
+			boolean heapSorted = false;
+			// 작은 쪽만 fork 하고 큰 쪽은 반복문으로 이어 가므로 한 작업이 내려가는 깊이가 얕다.
+			while(end - start + 1 > threshold) {
+				if(depthLimit-- == 0) {
+					QuickSort.heapSort(arr, start, end);
+					heapSorted = true;
+					break;
+				}
+				QuickSort.selectPivot(arr, start, end);
+				int pivotIndex = QuickSort.partition(arr, start, end);
+				SortTask smaller;
+				if(pivotIndex - start < end - pivotIndex) {
+					smaller = new SortTask(arr, start, pivotIndex - 1, threshold, depthLimit);
+					start = pivotIndex + 1;
+				} else {
+					smaller = new SortTask(arr, pivotIndex + 1, end, threshold, depthLimit);
+					end = pivotIndex - 1;
+				}
+				smaller.next = forked;
+				forked = smaller;
+				smaller.fork();
+			}
+			if(!heapSorted) QuickSort.quickSort(arr, start, end);
+			for(; forked != null; forked = forked.next) {
+				forked.join();
+			}
+		}
+	}
+
+	// 코어 수를 1 부터 늘려 가며 ParallelQuickSort 와 Arrays.parallelSort 를 비교한다.
+	public static void main(String[] args) throws Exception {
+		int N = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+		int threshold = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_THRESHOLD;
+		int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		int repeats = 3;
+
+		int[] source = new Random(42).ints(N).toArray();
+		int[] expected = source.clone();
+		Arrays.sort(expected);
+
+		System.out.println("available processors = " + Runtime.getRuntime().availableProcessors());
+		System.out.printf("N = %,d, threshold = %d, best of %d%n", N, threshold, repeats);
+		System.out.printf("%-8s %16s %16s %10s%n", "threads", "quickSort ms", "parallelSort ms", "speedup");
+		double base = 0;
+		for(int threads = 1; threads <= maxThreads; threads = threads < maxThreads ? Math.min(threads * 2, maxThreads) : threads + 1) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			double quick = Double.MAX_VALUE, parallel = Double.MAX_VALUE;
+			for(int r = 0; r < repeats + 1; r++) {     // 첫 번은 워밍업
+				int[] a = source.clone();
+				long t0 = System.nanoTime();
+				sort(a, 0, a.length - 1, threshold, pool);
+				long t1 = System.nanoTime();
+				if(!Arrays.equals(a, expected)) throw new IllegalStateException("ParallelQuickSort result is not sorted");
+
+				int[] b = source.clone();
+				long t2 = System.nanoTime();
+				// ForkJoinPool 안에서 부르면 Arrays.parallelSort 도 그 풀의 스레드로 나눠 돈다.
+				pool.submit(() -> Arrays.parallelSort(b)).get();
+				long t3 = System.nanoTime();
+				if(!Arrays.equals(b, expected)) throw new IllegalStateException("Arrays.parallelSort result is not sorted");
+
+				if(r > 0) {
+					quick = Math.min(quick, (t1 - t0) / 1e6);
+					parallel = Math.min(parallel, (t3 - t2) / 1e6);
+				}
+			}
+			pool.shutdown();
+			if(threads == 1) base = quick;
+			System.out.printf("%-8d %16.1f %16.1f %9.2fx%n", threads, quick, parallel, base / quick);
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package Algorithm.Sorting.QuickSort;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 분포 × 분할 방식 표. 각 칸은 워밍업 뒤 여러 번 잰 값 중 가장 짧은 시간(ms)이다.
+ * 사용법: java Algorithm.Sorting.QuickSort.PartitionBenchmark [N] [repeats]
+ */
+public class PartitionBenchmark {
+	private static final String[] DISTRIBUTIONS = {
+			"random", "sorted", "reverse", "organ pipe", "sawtooth", "8 codes", "2 codes", "all equal", "zipf-ish"
+	};
+
+	public static void main(String[] args) {
+		int N = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+		int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+		QuickSort.PartitionScheme[] schemes = QuickSort.PartitionScheme.values();
+
+		System.out.printf("N = %,d, best of %d (ms)%n", N, repeats);
+		System.out.printf("%-12s", "input");
+		for(QuickSort.PartitionScheme scheme : schemes) {
+			System.out.printf("%12s", scheme);
+		}
+		System.out.printf("%12s%n", "Arrays.sort");
+
+		for(String distribution : DISTRIBUTIONS) {
+			int[] source = generate(distribution, N, new Random(42));
+			int[] expected = source.clone();
+			Arrays.sort(expected);
+			System.out.printf("%-12s", distribution);
+			for(QuickSort.PartitionScheme scheme : schemes) {
+				System.out.printf("%12.1f", measure(source, expected, repeats, a -> QuickSort.quickSort(a, 0, a.length - 1, scheme)));
+			}
+			System.out.printf("%12.1f%n", measure(source, expected, repeats, Arrays::sort));
+		}
+	}
+
+	private interface Sorter {
+		void sort(int[] arr);
+	}
+
+	private static double measure(int[] source, int[] expected, int repeats, Sorter sorter) {
+		double best = Double.MAX_VALUE;
+		for(int r = 0; r <= repeats; r++) {     // 첫 번은 워밍업
+			int[] a = source.clone();
+			long start = System.nanoTime();
+			sorter.sort(a);
+			long elapsed = System.nanoTime() - start;
+			if(!Arrays.equals(a, expected)) throw new IllegalStateException("result is not sorted");
+			if(r > 0) best = Math.min(best, elapsed / 1e6);
+		}
+		return best;
+	}
+
+	static int[] generate(String distribution, int n, Random random) {
+		int[] a = new int[n];
+		for(int i = 0; i < n; i++) {
+			switch(distribution) {
+				case "random": a[i] = random.nextInt(); break;
+				case "sorted": a[i] = i; break;
+				case "reverse": a[i] = n - i; break;
+				case "organ pipe": a[i] = Math.min(i, n - i); break;
+				case "sawtooth": a[i] = i % 1000; break;
+				case "8 codes": a[i] = 200 + 100 * random.nextInt(8); break;     // HTTP 상태 코드처럼 값이 몇 개뿐인 경우
+				case "2 codes": a[i] = random.nextInt(2); break;
+				case "all equal": a[i] = 7; break;
+				// 작은 값일수록 훨씬 자주 나온다. 값 종류는 많지만 앞쪽 몇 개에 몰린다.
+				case "zipf-ish": a[i] = (int) (1 / (random.nextDouble() + 1e-6)); break;
+				default: throw new IllegalArgumentException("unknown distribution: " + distribution);
+			}
+		}
+		return a;
+	}
+}
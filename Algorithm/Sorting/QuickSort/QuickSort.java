@@ -5,27 +5,333 @@ import java.io.InputStreamReader;
 import java.util.Arrays;
 import java.util.StringTokenizer;
 
+/**
+ * 인트로 정렬(introsort) 방식의 퀵 소트.
+ *
+ * - pivot 은 세 값의 중앙값, 큰 구간에서는 중앙값 세 개의 중앙값(ninther)으로 골라 정렬·역정렬 입력에서도 고르게 나눈다.
+ * - 작은 쪽만 재귀하고 큰 쪽은 반복문으로 이어 가므로 스택 깊이는 log N 을 넘지 않는다.
+ * - 분할이 2·log N 번을 넘게 이어지면 남은 구간은 힙 정렬로 끝내 최악에도 O(N log N) 이다.
+ * - INSERTION_SORT_THRESHOLD 이하의 구간은 삽입 정렬로 끝낸다.
+ *
+ * 분할 방식은 {@link PartitionScheme} 으로 고른다. 기본값 AUTO 는 표본을 뽑아 서로 다른 값이 적으면
+ * THREE_WAY, 거의 정렬·역정렬돼 있으면 DUAL_PIVOT, 그 밖에는 BLOCK 을 쓴다.
+ */
 public class QuickSort {
+	static final int INSERTION_SORT_THRESHOLD = 16;
+	static final int NINTHER_THRESHOLD = 128;
+	static final int CARDINALITY_SAMPLE = 64;
+	static final int BLOCK_SIZE = 128;
+
+	public enum PartitionScheme {
+		/** pivot 하나로 (<= pivot) / (>= pivot) 두 구간으로 나눈다. (partition) */
+		TWO_WAY,
+		/** Dutch national flag. (< pivot) / (== pivot) / (> pivot) 으로 나누고 가운데는 다시 보지 않는다. */
+		THREE_WAY,
+		/** Yaroslavskiy 이중 pivot. p <= q 로 (< p) / (p..q) / (> q) 세 구간으로 나눈다. */
+		DUAL_PIVOT,
+		/** BlockQuicksort. TWO_WAY 와 같은 결과지만 비교 결과를 오프셋 버퍼에 모았다가 한꺼번에 교환해 분기 예측 실패를 없앤다. */
+		BLOCK,
+		/** 서로 다른 값이 적어 보이면 THREE_WAY, 거의 정렬·역정렬돼 보이면 DUAL_PIVOT, 아니면 BLOCK */
+		AUTO
+	}
+
 	public static void quickSort(int[] arr, int start, int end) {
+		quickSort(arr, start, end, PartitionScheme.AUTO);
+	}
+
+	public static void quickSort(int[] arr, int start, int end, PartitionScheme scheme) {
 		if(start >= end) return;
+		if(scheme == PartitionScheme.AUTO) {
+			if(isLowCardinality(arr, start, end)) {
+				scheme = PartitionScheme.THREE_WAY;
+			} else if(isPresorted(arr, start, end)) {
+				scheme = PartitionScheme.DUAL_PIVOT;
+			} else {
+				scheme = PartitionScheme.BLOCK;
+			}
+		}
+		int[] offsets = scheme == PartitionScheme.BLOCK ? new int[2 * BLOCK_SIZE] : null;
+		introSort(arr, start, end, 2 * (31 - Integer.numberOfLeadingZeros(end - start + 1)), scheme, offsets);
+	}
+
+	private static void introSort(int[] arr, int start, int end, int depthLimit, PartitionScheme scheme, int[] offsets) {
+		while(end - start + 1 > INSERTION_SORT_THRESHOLD) {
+			if(depthLimit-- == 0) {
+				heapSort(arr, start, end);
+				return;
+			}
+			if(scheme == PartitionScheme.DUAL_PIVOT) {
+				// 세 구간 중 가장 큰 구간만 반복문으로 이어 가고 나머지 둘(각각 절반 이하)은 재귀한다.
+				long bounds = dualPivotPartition(arr, start, end);
+				int l = (int) (bounds >>> 32), g = (int) bounds;
+				// p == q 면 가운데 구간은 모두 같은 값이라 정렬할 필요가 없다.
+				int middleEnd = arr[l] == arr[g] ? l : g - 1;
+				int leftSize = l - start, middleSize = middleEnd - l, rightSize = end - g;
+				if(leftSize >= middleSize && leftSize >= rightSize) {
+					introSort(arr, l + 1, middleEnd, depthLimit, scheme, offsets);
+					introSort(arr, g + 1, end, depthLimit, scheme, offsets);
+					end = l - 1;
+				} else if(rightSize >= middleSize) {
+					introSort(arr, start, l - 1, depthLimit, scheme, offsets);
+					introSort(arr, l + 1, middleEnd, depthLimit, scheme, offsets);
+					start = g + 1;
+				} else {
+					introSort(arr, start, l - 1, depthLimit, scheme, offsets);
+					introSort(arr, g + 1, end, depthLimit, scheme, offsets);
+					start = l + 1;
+					end = middleEnd;
+				}
+				continue;
+			}
+
+			selectPivot(arr, start, end);
+			int lo, hi;     // arr[lo..hi] 는 pivot 자리(들)로, 다시 정렬하지 않는다.
+			if(scheme == PartitionScheme.THREE_WAY) {
+				long bounds = threeWayPartition(arr, start, end);
+				lo = (int) (bounds >>> 32);
+				hi = (int) bounds;
+			} else if(scheme == PartitionScheme.BLOCK) {
+				lo = hi = blockPartition(arr, start, end, offsets);
+			} else {
+				lo = hi = partition(arr, start, end);
+			}
+			if(lo - start < end - hi) {
+				introSort(arr, start, lo - 1, depthLimit, scheme, offsets);
+				start = hi + 1;
+			} else {
+				introSort(arr, hi + 1, end, depthLimit, scheme, offsets);
+				end = lo - 1;
+			}
+		}
+		insertionSort(arr, start, end);
+	}
+
+	// 표본 CARDINALITY_SAMPLE 개 중 서로 다른 값이 1/4 이하면 중복이 많은 입력으로 본다.
+	// 등간격으로 뽑으면 주기가 있는 입력(톱니 모양 등)에서 같은 값만 골라질 수 있어 위치를 곱셈 해시로 흩는다.
+	static boolean isLowCardinality(int[] arr, int start, int end) {
+		int n = end - start + 1;
+		if(n < CARDINALITY_SAMPLE * 4) return false;
+		int[] sample = new int[CARDINALITY_SAMPLE];
+		for(int i = 0; i < CARDINALITY_SAMPLE; i++) {
+			long hash = ((i + 1) * 0x9E3779B9L) & 0xFFFFFFFFL;
+			sample[i] = arr[start + (int) (hash * n >>> 32)];
+		}
+		insertionSort(sample, 0, CARDINALITY_SAMPLE - 1);
+		int distinct = 1;
+		for(int i = 1; i < CARDINALITY_SAMPLE; i++) {
+			if(sample[i] != sample[i - 1]) distinct++;
+		}
+		return distinct * 4 <= CARDINALITY_SAMPLE;
+	}
 
-		int pivotIndex = partition(arr, start, end);
-		quickSort(arr, start, pivotIndex - 1);
-		quickSort(arr, pivotIndex + 1, end);
+	// 등간격 표본 CARDINALITY_SAMPLE 개를 위치 순서로 보고 내려가는(또는 올라가는) 곳이 1/16 이하면 거의 정렬된 입력으로 본다.
+	// 이런 입력에서는 BLOCK 이 교환을 블록 단위로 몰아 하느라 오히려 느려서 DUAL_PIVOT 을 쓴다.
+	static boolean isPresorted(int[] arr, int start, int end) {
+		int n = end - start + 1;
+		if(n < CARDINALITY_SAMPLE * 4) return false;
+		long step = (long) n / CARDINALITY_SAMPLE;
+		int ascents = 0, descents = 0;
+		int prev = arr[start];
+		for(int i = 1; i < CARDINALITY_SAMPLE; i++) {
+			int value = arr[start + (int) (i * step)];
+			if(value > prev) ascents++;
+			else if(value < prev) descents++;
+			prev = value;
+		}
+		return Math.min(ascents, descents) * 16 <= CARDINALITY_SAMPLE;
 	}
 
-	private static int partition(int[] arr, int start, int end) {
+	// pivot 은 arr[end]. 끝나면 arr[start..lt-1] < pivot, arr[lt..gt] == pivot, arr[gt+1..end] > pivot 이다.
+	// 두 경계를 (lt << 32) | gt 로 돌려준다.
+	static long threeWayPartition(int[] arr, int start, int end) {
 		int pivot = arr[end];
-		int i = start, j = end -1;
+		int lt = start, gt = end, i = start;
+		while(i <= gt) {
+			if(arr[i] < pivot) {
+				swap(arr, lt++, i++);
+			} else if(arr[i] > pivot) {
+				swap(arr, i, gt--);
+			} else {
+				i++;
+			}
+		}
+		return (long) lt << 32 | (gt & 0xFFFFFFFFL);
+	}
 
+	// 다섯 표본 중 2번째, 4번째 값을 p <= q 로 쓴다. 끝나면 arr[l] == p, arr[g] == q 이고
+	// arr[start..l-1] < p, p <= arr[l+1..g-1] <= q, arr[g+1..end] > q 이다. (l << 32) | g 를 돌려준다.
+	static long dualPivotPartition(int[] arr, int start, int end) {
+		int seventh = (end - start + 1) / 7;
+		int e3 = start + (end - start) / 2;
+		int e2 = e3 - seventh, e1 = e2 - seventh, e4 = e3 + seventh, e5 = e4 + seventh;
+		sortFive(arr, e1, e2, e3, e4, e5);
+		swap(arr, e2, start);
+		swap(arr, e4, end);
+
+		int p = arr[start], q = arr[end];
+		int l = start + 1, g = end - 1, k = l;
+		while(k <= g) {
+			if(arr[k] < p) {
+				swap(arr, k, l++);
+			} else if(arr[k] > q) {
+				while(arr[g] > q && k < g) g--;
+				swap(arr, k, g--);
+				if(arr[k] < p) swap(arr, k, l++);
+			}
+			k++;
+		}
+		l--;
+		g++;
+		swap(arr, start, l);
+		swap(arr, end, g);
+		return (long) l << 32 | (g & 0xFFFFFFFFL);
+	}
+
+	// 다섯 자리의 값을 제자리에서 오름차순으로 놓는다. (비교 9 번짜리 정렬 네트워크)
+	private static void sortFive(int[] arr, int e1, int e2, int e3, int e4, int e5) {
+		sortTwo(arr, e1, e2);
+		sortTwo(arr, e4, e5);
+		sortTwo(arr, e3, e5);
+		sortTwo(arr, e3, e4);
+		sortTwo(arr, e1, e4);
+		sortTwo(arr, e1, e3);
+		sortTwo(arr, e2, e5);
+		sortTwo(arr, e2, e4);
+		sortTwo(arr, e2, e3);
+	}
+
+	private static void sortTwo(int[] arr, int a, int b) {
+		if(arr[a] > arr[b]) swap(arr, a, b);
+	}
+
+	// 고른 pivot 을 arr[end] 로 옮긴다. partition 은 arr[end] 를 pivot 으로 쓴다.
+	static void selectPivot(int[] arr, int start, int end) {
+		int mid = start + (end - start) / 2;
+		int pivot;
+		if(end - start + 1 > NINTHER_THRESHOLD) {
+			int step = (end - start) / 8;
+			pivot = medianOfThree(arr,
+					medianOfThree(arr, start, start + step, start + 2 * step),
+					medianOfThree(arr, mid - step, mid, mid + step),
+					medianOfThree(arr, end - 2 * step, end - step, end));
+		} else {
+			pivot = medianOfThree(arr, start, mid, end);
+		}
+		swap(arr, pivot, end);
+	}
+
+	private static int medianOfThree(int[] arr, int a, int b, int c) {
+		if(arr[a] < arr[b]) {
+			if(arr[b] < arr[c]) return b;
+			return arr[a] < arr[c] ? c : a;
+		}
+		if(arr[a] < arr[c]) return a;
+		return arr[b] < arr[c] ? c : b;
+	}
+
+	static void insertionSort(int[] arr, int start, int end) {
+		for(int i = start + 1; i <= end; i++) {
+			int value = arr[i];
+			int j = i - 1;
+			while(j >= start && arr[j] > value) {
+				arr[j + 1] = arr[j];
+				j--;
+			}
+			arr[j + 1] = value;
+		}
+	}
+
+	static void heapSort(int[] arr, int start, int end) {
+		int n = end - start + 1;
+		for(int i = n / 2 - 1; i >= 0; i--) {
+			siftDown(arr, start, i, n);
+		}
+		for(int last = n - 1; last > 0; last--) {
+			swap(arr, start, start + last);
+			siftDown(arr, start, 0, last);
+		}
+	}
+
+	// arr[start..start+n-1] 을 0-based 최대 힙으로 보고 i 를 내린다.
+	private static void siftDown(int[] arr, int start, int i, int n) {
+		int value = arr[start + i];
+		while(true) {
+			int child = 2 * i + 1;
+			if(child >= n) break;
+			if(child + 1 < n && arr[start + child + 1] > arr[start + child]) child++;
+			if(arr[start + child] <= value) break;
+			arr[start + i] = arr[start + child];
+			i = child;
+		}
+		arr[start + i] = value;
+	}
+
+	// partition 과 같은 불변식과 결과를 내는 BlockQuicksort(Edelkamp & Weiß).
+	// 왼쪽 블록에서 pivot 이상인 원소, 오른쪽 블록에서 pivot 이하인 원소의 오프셋을 먼저 모두 적어 두고
+	// (비교 결과를 더하기만 하므로 분기가 없다) 두 목록을 짝지어 한꺼번에 교환한다.
+	// 블록 두 개가 들어가지 않는 나머지 구간은 partition 과 같은 반복문으로 끝낸다.
+	static int blockPartition(int[] arr, int start, int end, int[] offsets) {
+		int pivot = arr[end];
+		int l = start, r = end - 1;            // 아직 나누지 않은 구간 [l, r]
+		int numL = 0, numR = 0, startL = 0, startR = 0;
+		while(r - l + 1 > 2 * BLOCK_SIZE) {
+			if(numL == 0) {
+				startL = 0;
+				for(int k = 0; k < BLOCK_SIZE; k++) {
+					offsets[numL] = k;
+					numL += arr[l + k] >= pivot ? 1 : 0;
+				}
+			}
+			if(numR == 0) {
+				startR = 0;
+				for(int k = 0; k < BLOCK_SIZE; k++) {
+					offsets[BLOCK_SIZE + numR] = k;
+					numR += arr[r - k] <= pivot ? 1 : 0;
+				}
+			}
+			int num = Math.min(numL, numR);
+			for(int k = 0; k < num; k++) {
+				swap(arr, l + offsets[startL + k], r - offsets[BLOCK_SIZE + startR + k]);
+			}
+			numL -= num;
+			numR -= num;
+			startL += num;
+			startR += num;
+			if(numL == 0) l += BLOCK_SIZE;
+			if(numR == 0) r -= BLOCK_SIZE;
+		}
+
+		// 반쯤 처리한 블록이 남아 있어도 [l, r] 안에 있으므로 불변식은 그대로다.
+		int i = l, j = r;
 		while(i <= j) {
-			if(arr[i] > pivot && arr[j] < pivot) {
+			if(arr[i] < pivot) {
+				i++;
+			} else if(arr[j] > pivot) {
+				j--;
+			} else {
 				swap(arr, i, j);
 				i++;
 				j--;
-			} else if(arr[i] < pivot) {
+			}
+		}
+		swap(arr, i, end);
+		return i;
+	}
+
+	// arr[start..i-1] <= pivot, arr[j+1..end-1] >= pivot 을 유지한다.
+	// pivot 과 같은 값은 양쪽 어디서든 멈춰 교환하므로 중복이 많아도 한쪽으로 몰리지 않는다.
+	static int partition(int[] arr, int start, int end) {
+		int pivot = arr[end];
+		int i = start, j = end -1;
+
+		while(i <= j) {
+			if(arr[i] < pivot) {
 				i++;
+			} else if(arr[j] > pivot) {
+				j--;
 			} else {
+				swap(arr, i, j);
+				i++;
 				j--;
 			}
 		}
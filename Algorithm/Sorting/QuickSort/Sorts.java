@@ -0,0 +1,666 @@
+package Algorithm.Sorting.QuickSort;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * int[] 밖의 타입을 위한 정렬 모음. 범위는 QuickSort.quickSort 와 같이 [start, end] 양 끝 포함이다.
+ * 범위를 받지 않는 sort(arr) 는 배열 전체를 정렬한다.
+ *
+ * <ul>
+ *     <li>long[] / double[] / T[] : QuickSort 와 같은 인트로 정렬(중앙값 pivot, 작은 쪽만 재귀, 힙 정렬 전환, 삽입 정렬).</li>
+ *     <li>double[] : Double.compare 와 같은 순서다. -0.0 &lt; 0.0 이고 NaN 은 맨 뒤에 모인다.</li>
+ *     <li>short[] / byte[] : 값의 범위가 작으므로 비교 없이 계수 정렬(counting sort)을 한다. O(N + 범위)</li>
+ *     <li>argSort : 키 배열은 건드리지 않고, keys[index[i]] 가 오름차순이 되는 순열 index 를 만든다.
+ *         키가 같으면 원래 위치 순서를 지킨다. (안정 정렬)</li>
+ * </ul>
+ * T[] 정렬은 안정 정렬이 아니다. 같은 키의 원래 순서가 필요하면 argSort 를 쓴다.
+ */
+public final class Sorts {
+	private static final int INSERTION_SORT_THRESHOLD = QuickSort.INSERTION_SORT_THRESHOLD;
+	private static final int COUNTING_SORT_THRESHOLD = 64;
+	// 값 65536 가지를 한 번 훑는 비용이 비교 정렬보다 싸지는 길이
+	private static final int SHORT_COUNTING_SORT_THRESHOLD = 1 << 11;
+
+	private Sorts() {
+	}
+
+	// ---------------------------------------------------------------- int[]
+
+	public static void sort(int[] arr) {
+		sort(arr, 0, arr.length - 1);
+	}
+
+	public static void sort(int[] arr, int start, int end) {
+		QuickSort.quickSort(arr, start, end);
+	}
+
+	// ---------------------------------------------------------------- long[]
+
+	public static void sort(long[] arr) {
+		sort(arr, 0, arr.length - 1);
+	}
+
+	public static void sort(long[] arr, int start, int end) {
+		if(start >= end) return;
+		introSort(arr, start, end, depthLimit(start, end));
+	}
+
+	private static void introSort(long[] arr, int start, int end, int depthLimit) {
+		while(end - start + 1 > INSERTION_SORT_THRESHOLD) {
+			if(depthLimit-- == 0) {
+				heapSort(arr, start, end);
+				return;
+			}
+			swap(arr, medianOfThree(arr, start, start + (end - start) / 2, end), end);
+			int pivotIndex = partition(arr, start, end);
+			if(pivotIndex - start < end - pivotIndex) {
+				introSort(arr, start, pivotIndex - 1, depthLimit);
+				start = pivotIndex + 1;
+			} else {
+				introSort(arr, pivotIndex + 1, end, depthLimit);
+				end = pivotIndex - 1;
+			}
+		}
+		for(int i = start + 1; i <= end; i++) {
+			long value = arr[i];
+			int j = i - 1;
+			while(j >= start && arr[j] > value) {
+				arr[j + 1] = arr[j];
+				j--;
+			}
+			arr[j + 1] = value;
+		}
+	}
+
+	// QuickSort.partition 과 같다. arr[start..i-1] <= pivot, arr[j+1..end-1] >= pivot
+	private static int partition(long[] arr, int start, int end) {
+		long pivot = arr[end];
+		int i = start, j = end - 1;
+		while(i <= j) {
+			if(arr[i] < pivot) {
+				i++;
+			} else if(arr[j] > pivot) {
+				j--;
+			} else {
+				swap(arr, i, j);
+				i++;
+				j--;
+			}
+		}
+		swap(arr, i, end);
+		return i;
+	}
+
+	private static int medianOfThree(long[] arr, int a, int b, int c) {
+		if(arr[a] < arr[b]) {
+			if(arr[b] < arr[c]) return b;
+			return arr[a] < arr[c] ? c : a;
+		}
+		if(arr[a] < arr[c]) return a;
+		return arr[b] < arr[c] ? c : b;
+	}
+
+	private static void heapSort(long[] arr, int start, int end) {
+		int n = end - start + 1;
+		for(int i = n / 2 - 1; i >= 0; i--) {
+			siftDown(arr, start, i, n);
+		}
+		for(int last = n - 1; last > 0; last--) {
+			swap(arr, start, start + last);
+			siftDown(arr, start, 0, last);
+		}
+	}
+
+	private static void siftDown(long[] arr, int start, int i, int n) {
+		long value = arr[start + i];
+		while(true) {
+			int child = 2 * i + 1;
+			if(child >= n) break;
+			if(child + 1 < n && arr[start + child + 1] > arr[start + child]) child++;
+			if(arr[start + child] <= value) break;
+			arr[start + i] = arr[start + child];
+			i = child;
+		}
+		arr[start + i] = value;
+	}
+
+	private static void swap(long[] arr, int i, int j) {
+		long temp = arr[i];
+		arr[i] = arr[j];
+		arr[j] = temp;
+	}
+
+	// ---------------------------------------------------------------- double[]
+
+	public static void sort(double[] arr) {
+		sort(arr, 0, arr.length - 1);
+	}
+
+	/**
+	 * double 의 &lt; 는 NaN 과 비교하면 항상 false 이고 -0.0 == 0.0 이라 그대로 정렬하면 Double.compare 순서가 나오지 않는다.
+	 * 1) NaN 을 끝으로 옮기고, 2) -0.0 을 세면서 0.0 으로 바꾼 뒤 나머지를 &lt; 로 정렬하고,
+	 * 3) 0.0 구간의 앞쪽을 센 개수만큼 다시 -0.0 으로 되돌린다.
+	 */
+	public static void sort(double[] arr, int start, int end) {
+		if(start >= end) return;
+		int last = end;
+		for(int i = end; i >= start; i--) {
+			if(Double.isNaN(arr[i])) {
+				double nan = arr[i];
+				arr[i] = arr[last];
+				arr[last--] = nan;
+			}
+		}
+
+		int negativeZeros = 0;
+		for(int i = start; i <= last; i++) {
+			if(arr[i] == 0.0 && Double.doubleToRawLongBits(arr[i]) != 0) {
+				arr[i] = 0.0;
+				negativeZeros++;
+			}
+		}
+
+		if(start < last) introSort(arr, start, last, depthLimit(start, last));
+
+		if(negativeZeros > 0) {
+			int lo = start, hi = last + 1;     // 0.0 이상인 첫 위치
+			while(lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if(arr[mid] < 0.0) lo = mid + 1;
+				else hi = mid;
+			}
+			for(int i = 0; i < negativeZeros; i++) {
+				arr[lo + i] = -0.0;
+			}
+		}
+	}
+
+	private static void introSort(double[] arr, int start, int end, int depthLimit) {
+		while(end - start + 1 > INSERTION_SORT_THRESHOLD) {
+			if(depthLimit-- == 0) {
+				heapSort(arr, start, end);
+				return;
+			}
+			swap(arr, medianOfThree(arr, start, start + (end - start) / 2, end), end);
+			int pivotIndex = partition(arr, start, end);
+			if(pivotIndex - start < end - pivotIndex) {
+				introSort(arr, start, pivotIndex - 1, depthLimit);
+				start = pivotIndex + 1;
+			} else {
+				introSort(arr, pivotIndex + 1, end, depthLimit);
+				end = pivotIndex - 1;
+			}
+		}
+		for(int i = start + 1; i <= end; i++) {
+			double value = arr[i];
+			int j = i - 1;
+			while(j >= start && arr[j] > value) {
+				arr[j + 1] = arr[j];
+				j--;
+			}
+			arr[j + 1] = value;
+		}
+	}
+
+	private static int partition(double[] arr, int start, int end) {
+		double pivot = arr[end];
+		int i = start, j = end - 1;
+		while(i <= j) {
+			if(arr[i] < pivot) {
+				i++;
+			} else if(arr[j] > pivot) {
+				j--;
+			} else {
+				swap(arr, i, j);
+				i++;
+				j--;
+			}
+		}
+		swap(arr, i, end);
+		return i;
+	}
+
+	private static int medianOfThree(double[] arr, int a, int b, int c) {
+		if(arr[a] < arr[b]) {
+			if(arr[b] < arr[c]) return b;
+			return arr[a] < arr[c] ? c : a;
+		}
+		if(arr[a] < arr[c]) return a;
+		return arr[b] < arr[c] ? c : b;
+	}
+
+	private static void heapSort(double[] arr, int start, int end) {
+		int n = end - start + 1;
+		for(int i = n / 2 - 1; i >= 0; i--) {
+			siftDown(arr, start, i, n);
+		}
+		for(int last = n - 1; last > 0; last--) {
+			swap(arr, start, start + last);
+			siftDown(arr, start, 0, last);
+		}
+	}
+
+	private static void siftDown(double[] arr, int start, int i, int n) {
+		double value = arr[start + i];
+		while(true) {
+			int child = 2 * i + 1;
+			if(child >= n) break;
+			if(child + 1 < n && arr[start + child + 1] > arr[start + child]) child++;
+			if(arr[start + child] <= value) break;
+			arr[start + i] = arr[start + child];
+			i = child;
+		}
+		arr[start + i] = value;
+	}
+
+	private static void swap(double[] arr, int i, int j) {
+		double temp = arr[i];
+		arr[i] = arr[j];
+		arr[j] = temp;
+	}
+
+	// ---------------------------------------------------------------- short[] / byte[]
+
+	public static void sort(short[] arr) {
+		sort(arr, 0, arr.length - 1);
+	}
+
+	/**
+	 * 짧은 구간은 삽입 정렬, 2048 개 미만은 int[] 로 옮겨 QuickSort 로, 그 이상은 값 65536 가지를 세는 계수 정렬.
+	 * 계수 정렬은 원소 수와 상관없이 카운트 배열 전체를 훑으므로 짧은 구간에서는 손해다.
+	 */
+	public static void sort(short[] arr, int start, int end) {
+		if(start >= end) return;
+		int n = end - start + 1;
+		if(n <= COUNTING_SORT_THRESHOLD) {
+			for(int i = start + 1; i <= end; i++) {
+				short value = arr[i];
+				int j = i - 1;
+				while(j >= start && arr[j] > value) {
+					arr[j + 1] = arr[j];
+					j--;
+				}
+				arr[j + 1] = value;
+			}
+			return;
+		}
+		if(n < SHORT_COUNTING_SORT_THRESHOLD) {
+			int[] widened = new int[n];
+			for(int i = 0; i < n; i++) {
+				widened[i] = arr[start + i];
+			}
+			QuickSort.quickSort(widened, 0, n - 1);
+			for(int i = 0; i < n; i++) {
+				arr[start + i] = (short) widened[i];
+			}
+			return;
+		}
+		int[] count = new int[1 << 16];
+		for(int i = start; i <= end; i++) {
+			count[arr[i] - Short.MIN_VALUE]++;
+		}
+		int k = start;
+		for(int v = 0; v < count.length; v++) {
+			for(int c = count[v]; c > 0; c--) {
+				arr[k++] = (short) (v + Short.MIN_VALUE);
+			}
+		}
+	}
+
+	public static void sort(byte[] arr) {
+		sort(arr, 0, arr.length - 1);
+	}
+
+	/** 짧은 구간은 삽입 정렬, 그 밖에는 값 256 가지를 세는 계수 정렬 */
+	public static void sort(byte[] arr, int start, int end) {
+		if(start >= end) return;
+		if(end - start + 1 <= COUNTING_SORT_THRESHOLD) {
+			for(int i = start + 1; i <= end; i++) {
+				byte value = arr[i];
+				int j = i - 1;
+				while(j >= start && arr[j] > value) {
+					arr[j + 1] = arr[j];
+					j--;
+				}
+				arr[j + 1] = value;
+			}
+			return;
+		}
+		int[] count = new int[1 << 8];
+		for(int i = start; i <= end; i++) {
+			count[arr[i] - Byte.MIN_VALUE]++;
+		}
+		int k = start;
+		for(int v = 0; v < count.length; v++) {
+			Arrays.fill(arr, k, k + count[v], (byte) (v + Byte.MIN_VALUE));
+			k += count[v];
+		}
+	}
+
+	// ---------------------------------------------------------------- T[]
+
+	public static <T> void sort(T[] arr, Comparator<? super T> comparator) {
+		sort(arr, 0, arr.length - 1, comparator);
+	}
+
+	/** comparator 가 null 이면 자연 순서(Comparable)로 정렬한다. */
+	@SuppressWarnings("unchecked")
+	public static <T> void sort(T[] arr, int start, int end, Comparator<? super T> comparator) {
+		if(start >= end) return;
+		Comparator<? super T> c = comparator != null ? comparator : (Comparator<? super T>) Comparator.naturalOrder();
+		introSort(arr, start, end, depthLimit(start, end), c);
+	}
+
+	private static <T> void introSort(T[] arr, int start, int end, int depthLimit, Comparator<? super T> c) {
+		while(end - start + 1 > INSERTION_SORT_THRESHOLD) {
+			if(depthLimit-- == 0) {
+				heapSort(arr, start, end, c);
+				return;
+			}
+			swap(arr, medianOfThree(arr, start, start + (end - start) / 2, end, c), end);
+			int pivotIndex = partition(arr, start, end, c);
+			if(pivotIndex - start < end - pivotIndex) {
+				introSort(arr, start, pivotIndex - 1, depthLimit, c);
+				start = pivotIndex + 1;
+			} else {
+				introSort(arr, pivotIndex + 1, end, depthLimit, c);
+				end = pivotIndex - 1;
+			}
+		}
+		for(int i = start + 1; i <= end; i++) {
+			T value = arr[i];
+			int j = i - 1;
+			while(j >= start && c.compare(arr[j], value) > 0) {
+				arr[j + 1] = arr[j];
+				j--;
+			}
+			arr[j + 1] = value;
+		}
+	}
+
+	private static <T> int partition(T[] arr, int start, int end, Comparator<? super T> c) {
+		T pivot = arr[end];
+		int i = start, j = end - 1;
+		while(i <= j) {
+			if(c.compare(arr[i], pivot) < 0) {
+				i++;
+			} else if(c.compare(arr[j], pivot) > 0) {
+				j--;
+			} else {
+				swap(arr, i, j);
+				i++;
+				j--;
+			}
+		}
+		swap(arr, i, end);
+		return i;
+	}
+
+	private static <T> int medianOfThree(T[] arr, int a, int b, int c, Comparator<? super T> cmp) {
+		if(cmp.compare(arr[a], arr[b]) < 0) {
+			if(cmp.compare(arr[b], arr[c]) < 0) return b;
+			return cmp.compare(arr[a], arr[c]) < 0 ? c : a;
+		}
+		if(cmp.compare(arr[a], arr[c]) < 0) return a;
+		return cmp.compare(arr[b], arr[c]) < 0 ? c : b;
+	}
+
+	private static <T> void heapSort(T[] arr, int start, int end, Comparator<? super T> c) {
+		int n = end - start + 1;
+		for(int i = n / 2 - 1; i >= 0; i--) {
+			siftDown(arr, start, i, n, c);
+		}
+		for(int last = n - 1; last > 0; last--) {
+			swap(arr, start, start + last);
+			siftDown(arr, start, 0, last, c);
+		}
+	}
+
+	private static <T> void siftDown(T[] arr, int start, int i, int n, Comparator<? super T> c) {
+		T value = arr[start + i];
+		while(true) {
+			int child = 2 * i + 1;
+			if(child >= n) break;
+			if(child + 1 < n && c.compare(arr[start + child + 1], arr[start + child]) > 0) child++;
+			if(c.compare(arr[start + child], value) <= 0) break;
+			arr[start + i] = arr[start + child];
+			i = child;
+		}
+		arr[start + i] = value;
+	}
+
+	private static void swap(Object[] arr, int i, int j) {
+		Object temp = arr[i];
+		arr[i] = arr[j];
+		arr[j] = temp;
+	}
+
+	// ---------------------------------------------------------------- argSort
+
+	/** 두 행(row) i, j 의 키를 비교한다. */
+	public interface RowComparator {
+		int compare(int i, int j);
+	}
+
+	/** keys[result[0]] <= keys[result[1]] <= ... 인 순열. keys 는 바뀌지 않는다. */
+	public static int[] argSort(int[] keys) {
+		return argSort(keys.length, (i, j) -> Integer.compare(keys[i], keys[j]));
+	}
+
+	public static int[] argSort(long[] keys) {
+		return argSort(keys.length, (i, j) -> Long.compare(keys[i], keys[j]));
+	}
+
+	/** Double.compare 순서다. (-0.0 &lt; 0.0, NaN 은 맨 뒤) */
+	public static int[] argSort(double[] keys) {
+		return argSort(keys.length, (i, j) -> Double.compare(keys[i], keys[j]));
+	}
+
+	public static <T> int[] argSort(T[] keys, Comparator<? super T> comparator) {
+		return argSort(keys.length, (i, j) -> comparator.compare(keys[i], keys[j]));
+	}
+
+	/** 0..rows-1 행을 rows 비교로 정렬한 순열. 여러 열을 키로 쓰거나 키가 다른 구조에 있을 때 쓴다. */
+	public static int[] argSort(int rows, RowComparator comparator) {
+		int[] index = new int[rows];
+		for(int i = 0; i < rows; i++) {
+			index[i] = i;
+		}
+		// 키가 같으면 행 번호로 비교하므로 모든 키가 서로 달라져 퀵 소트로도 안정 정렬이 된다.
+		RowComparator order = (i, j) -> {
+			int cmp = comparator.compare(i, j);
+			return cmp != 0 ? cmp : Integer.compare(i, j);
+		};
+		if(rows > 1) introSort(index, 0, rows - 1, depthLimit(0, rows - 1), order);
+		return index;
+	}
+
+	private static void introSort(int[] index, int start, int end, int depthLimit, RowComparator c) {
+		while(end - start + 1 > INSERTION_SORT_THRESHOLD) {
+			if(depthLimit-- == 0) {
+				heapSort(index, start, end, c);
+				return;
+			}
+			int mid = start + (end - start) / 2;
+			int a = index[start], b = index[mid], d = index[end];
+			int median = c.compare(a, b) < 0
+					? (c.compare(b, d) < 0 ? mid : c.compare(a, d) < 0 ? end : start)
+					: (c.compare(a, d) < 0 ? start : c.compare(b, d) < 0 ? end : mid);
+			swap(index, median, end);
+			int pivot = index[end];
+			int i = start, j = end - 1;
+			while(i <= j) {
+				if(c.compare(index[i], pivot) < 0) {
+					i++;
+				} else if(c.compare(index[j], pivot) > 0) {
+					j--;
+				} else {
+					swap(index, i, j);
+					i++;
+					j--;
+				}
+			}
+			swap(index, i, end);
+			if(i - start < end - i) {
+				introSort(index, start, i - 1, depthLimit, c);
+				start = i + 1;
+			} else {
+				introSort(index, i + 1, end, depthLimit, c);
+				end = i - 1;
+			}
+		}
+		for(int i = start + 1; i <= end; i++) {
+			int value = index[i];
+			int j = i - 1;
+			while(j >= start && c.compare(index[j], value) > 0) {
+				index[j + 1] = index[j];
+				j--;
+			}
+			index[j + 1] = value;
+		}
+	}
+
+	private static void heapSort(int[] index, int start, int end, RowComparator c) {
+		int n = end - start + 1;
+		for(int i = n / 2 - 1; i >= 0; i--) {
+			siftDown(index, start, i, n, c);
+		}
+		for(int last = n - 1; last > 0; last--) {
+			swap(index, start, start + last);
+			siftDown(index, start, 0, last, c);
+		}
+	}
+
+	private static void siftDown(int[] index, int start, int i, int n, RowComparator c) {
+		int value = index[start + i];
+		while(true) {
+			int child = 2 * i + 1;
+			if(child >= n) break;
+			if(child + 1 < n && c.compare(index[start + child + 1], index[start + child]) > 0) child++;
+			if(c.compare(index[start + child], value) <= 0) break;
+			index[start + i] = index[start + child];
+			i = child;
+		}
+		index[start + i] = value;
+	}
+
+	private static void swap(int[] arr, int i, int j) {
+		int temp = arr[i];
+		arr[i] = arr[j];
+		arr[j] = temp;
+	}
+
+	private static int depthLimit(int start, int end) {
+		return 2 * (31 - Integer.numberOfLeadingZeros(end - start + 1));
+	}
+
+	// 타입별로 Arrays.sort 와 시간을 비교하고 결과가 같은지 확인한다.
+	public static void main(String[] args) {
+		int N = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+		Random random = new Random(42);
+
+		long[] longs = random.longs(N).toArray();
+		double[] doubles = random.doubles(N).map(d -> d - 0.5).toArray();
+		for(int i = 0; i < N; i += 1000) {
+			doubles[i] = i % 3000 == 0 ? Double.NaN : i % 2000 == 0 ? -0.0 : 0.0;
+		}
+		short[] shorts = new short[N];
+		byte[] bytes = new byte[N];
+		Integer[] boxed = new Integer[N];
+		for(int i = 0; i < N; i++) {
+			shorts[i] = (short) random.nextInt();
+			bytes[i] = (byte) random.nextInt();
+			boxed[i] = random.nextInt();
+		}
+
+		System.out.printf("N = %,d (ms, best of 3)%n", N);
+		System.out.printf("%-10s %12s %12s%n", "type", "Sorts", "Arrays.sort");
+		report("long[]", () -> {
+			long[] a = longs.clone();
+			long t = System.nanoTime();
+			sort(a, 0, a.length - 1);
+			t = System.nanoTime() - t;
+			long[] b = longs.clone();
+			long u = System.nanoTime();
+			Arrays.sort(b);
+			u = System.nanoTime() - u;
+			return Arrays.equals(a, b) ? new long[]{t, u} : null;
+		});
+		report("double[]", () -> {
+			double[] a = doubles.clone();
+			long t = System.nanoTime();
+			sort(a, 0, a.length - 1);
+			t = System.nanoTime() - t;
+			double[] b = doubles.clone();
+			long u = System.nanoTime();
+			Arrays.sort(b);
+			u = System.nanoTime() - u;
+			return Arrays.equals(a, b) ? new long[]{t, u} : null;     // Arrays.equals(double[]) 는 -0.0 과 0.0 을 구분한다.
+		});
+		report("short[]", () -> {
+			short[] a = shorts.clone();
+			long t = System.nanoTime();
+			sort(a, 0, a.length - 1);
+			t = System.nanoTime() - t;
+			short[] b = shorts.clone();
+			long u = System.nanoTime();
+			Arrays.sort(b);
+			u = System.nanoTime() - u;
+			return Arrays.equals(a, b) ? new long[]{t, u} : null;
+		});
+		report("byte[]", () -> {
+			byte[] a = bytes.clone();
+			long t = System.nanoTime();
+			sort(a, 0, a.length - 1);
+			t = System.nanoTime() - t;
+			byte[] b = bytes.clone();
+			long u = System.nanoTime();
+			Arrays.sort(b);
+			u = System.nanoTime() - u;
+			return Arrays.equals(a, b) ? new long[]{t, u} : null;
+		});
+		report("Integer[]", () -> {
+			Integer[] a = boxed.clone();
+			long t = System.nanoTime();
+			sort(a, 0, a.length - 1, Comparator.naturalOrder());
+			t = System.nanoTime() - t;
+			Integer[] b = boxed.clone();
+			long u = System.nanoTime();
+			Arrays.sort(b, Comparator.naturalOrder());
+			u = System.nanoTime() - u;
+			return Arrays.equals(a, b) ? new long[]{t, u} : null;
+		});
+
+		// 타임스탬프 열로 행 번호를 정렬한다. 무거운 행 자체는 움직이지 않는다.
+		long[] timestamps = new long[N];
+		for(int i = 0; i < N; i++) {
+			timestamps[i] = 1_700_000_000_000L + random.nextInt(86_400_000);
+		}
+		long t = System.nanoTime();
+		int[] order = argSort(timestamps);
+		t = System.nanoTime() - t;
+		for(int i = 1; i < N; i++) {
+			if(timestamps[order[i - 1]] > timestamps[order[i]]) throw new IllegalStateException("argSort is not sorted");
+		}
+		System.out.printf("%-10s %12.1f %12s%n", "argSort", t / 1e6, "-");
+	}
+
+	private interface Trial {
+		long[] run();
+	}
+
+	private static void report(String type, Trial trial) {
+		long best = Long.MAX_VALUE, bestJdk = Long.MAX_VALUE;
+		for(int r = 0; r < 4; r++) {     // 첫 번은 워밍업
+			long[] times = trial.run();
+			if(times == null) throw new IllegalStateException(type + " result differs from Arrays.sort");
+			if(r > 0) {
+				best = Math.min(best, times[0]);
+				bestJdk = Math.min(bestJdk, times[1]);
+			}
+		}
+		System.out.printf("%-10s %12.1f %12.1f%n", type, best / 1e6, bestJdk / 1e6);
+	}
+}
@@ -0,0 +1,527 @@
+package DataStructure.NonLinear.BTree;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.StringTokenizer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 값은 리프에만 두고, 리프끼리 형제 포인터로 연결한 B+Tree.
+ * 내부 노드의 키는 길 안내용 구분 키일 뿐이라 검색은 항상 리프까지 내려가고,
+ * 구간 검색은 시작 리프를 찾은 뒤 next 포인터를 따라 순차적으로 읽는다.
+ */
+public class BPlusTree {
+    private int degrees;
+    private int minKeys;
+    private int maxKeys;
+    private Node root;
+    private int count;
+
+    public BPlusTree(int degrees) {
+        if (degrees < 3) {
+            throw new IllegalArgumentException("degrees must be at least 3: " + degrees);
+        }
+        this.root = null;
+        this.degrees = degrees;
+        this.maxKeys = degrees - 1;
+        this.minKeys = (degrees - 1) / 2;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public String search(int key) {
+        if (root == null) return null;
+        Node leaf = findLeaf(key);
+        int idx = Arrays.binarySearch(leaf.keys, 0, leaf.size, key);
+        return idx >= 0 ? leaf.values[idx] : null;
+    }
+
+    public void insert(int key, String value) {
+        if (root == null) {
+            root = new Node(null, true);
+            root.keys[0] = key;
+            root.values[0] = value;
+            root.size = 1;
+            count = 1;
+            return;
+        }
+
+        Node leaf = findLeaf(key);
+        int idx = Arrays.binarySearch(leaf.keys, 0, leaf.size, key);
+        if (idx >= 0) return;   // 이미 존재하는 키
+        idx = -(idx + 1);
+
+        System.arraycopy(leaf.keys, idx, leaf.keys, idx + 1, leaf.size - idx);
+        System.arraycopy(leaf.values, idx, leaf.values, idx + 1, leaf.size - idx);
+        leaf.keys[idx] = key;
+        leaf.values[idx] = value;
+        leaf.size++;
+        count++;
+
+        if (leaf.size > maxKeys) splitLeaf(leaf);
+    }
+
+    public void delete(int key) {
+        if (root == null) return;
+
+        Node leaf = findLeaf(key);
+        int idx = Arrays.binarySearch(leaf.keys, 0, leaf.size, key);
+        if (idx < 0) return;
+
+        System.arraycopy(leaf.keys, idx + 1, leaf.keys, idx, leaf.size - idx - 1);
+        System.arraycopy(leaf.values, idx + 1, leaf.values, idx, leaf.size - idx - 1);
+        leaf.size--;
+        leaf.values[leaf.size] = null;
+        count--;
+
+        if (leaf == root) {
+            if (leaf.size == 0) root = null;
+        } else if (leaf.size < minKeys) {
+            rebalanceLeaf(leaf);
+        }
+    }
+
+    /**
+     * [from, to] 구간의 키를 오름차순으로 돌려주는 커서.
+     * 커서를 직접 돌리면 객체 생성 없이 읽을 수 있고, Spliterator 로 쓰면 병렬 스트림의 소스가 된다.
+     * 순회 중에 트리를 수정하면 결과는 정의되지 않는다.
+     */
+    public RangeCursor rangeScan(int from, int to) {
+        return new RangeCursor(from, to, count);
+    }
+
+    public Stream<Entry> range(int from, int to, boolean parallel) {
+        return StreamSupport.stream(rangeScan(from, to), parallel);
+    }
+
+    private Node findLeaf(int key) {
+        Node current = root;
+        while (!current.isLeaf) {
+            current = current.children[childIndex(current, key)];
+        }
+        return current;
+    }
+
+    // 구분 키와 같은 키는 오른쪽 서브트리에 있다
+    private static int childIndex(Node node, int key) {
+        int idx = Arrays.binarySearch(node.keys, 0, node.size, key);
+        return idx >= 0 ? idx + 1 : -(idx + 1);
+    }
+
+    private void splitLeaf(Node leaf) {
+        Node right = new Node(leaf.parent, true);
+        int leftSize = leaf.size / 2;
+        right.size = leaf.size - leftSize;
+        System.arraycopy(leaf.keys, leftSize, right.keys, 0, right.size);
+        System.arraycopy(leaf.values, leftSize, right.values, 0, right.size);
+        Arrays.fill(leaf.values, leftSize, leaf.size, null);
+        leaf.size = leftSize;
+
+        right.next = leaf.next;
+        right.prev = leaf;
+        if (leaf.next != null) leaf.next.prev = right;
+        leaf.next = right;
+
+        // 리프 분할은 오른쪽 첫 키를 복사해서 올린다
+        insertIntoParent(leaf, right.keys[0], right);
+    }
+
+    private void splitInternal(Node node) {
+        int midIdx = node.size / 2;
+        int midKey = node.keys[midIdx];
+
+        Node right = new Node(node.parent, false);
+        right.size = node.size - midIdx - 1;
+        System.arraycopy(node.keys, midIdx + 1, right.keys, 0, right.size);
+        System.arraycopy(node.children, midIdx + 1, right.children, 0, right.size + 1);
+        for (int i = 0; i <= right.size; i++) {
+            right.children[i].parent = right;
+        }
+        Arrays.fill(node.children, midIdx + 1, node.size + 1, null);
+        node.size = midIdx;
+
+        // 내부 노드 분할은 중간 키를 올리고 자신은 남기지 않는다
+        insertIntoParent(node, midKey, right);
+    }
+
+    private void insertIntoParent(Node left, int key, Node right) {
+        Node parent = left.parent;
+        if (parent == null) {
+            parent = new Node(null, false);
+            parent.children[0] = left;
+            left.parent = parent;
+            right.parent = parent;
+            root = parent;
+        }
+
+        int idx = indexOfChild(parent, left);
+        System.arraycopy(parent.keys, idx, parent.keys, idx + 1, parent.size - idx);
+        System.arraycopy(parent.children, idx + 1, parent.children, idx + 2, parent.size - idx);
+        parent.keys[idx] = key;
+        parent.children[idx + 1] = right;
+        parent.size++;
+
+        if (parent.size > maxKeys) splitInternal(parent);
+    }
+
+    private void rebalanceLeaf(Node leaf) {
+        Node parent = leaf.parent;
+        int idx = indexOfChild(parent, leaf);
+        Node prevSibling = idx > 0 ? parent.children[idx - 1] : null;
+        Node nextSibling = idx < parent.size ? parent.children[idx + 1] : null;
+
+        if (prevSibling != null && prevSibling.size > minKeys) {
+            System.arraycopy(leaf.keys, 0, leaf.keys, 1, leaf.size);
+            System.arraycopy(leaf.values, 0, leaf.values, 1, leaf.size);
+            prevSibling.size--;
+            leaf.keys[0] = prevSibling.keys[prevSibling.size];
+            leaf.values[0] = prevSibling.values[prevSibling.size];
+            prevSibling.values[prevSibling.size] = null;
+            leaf.size++;
+            parent.keys[idx - 1] = leaf.keys[0];
+        } else if (nextSibling != null && nextSibling.size > minKeys) {
+            leaf.keys[leaf.size] = nextSibling.keys[0];
+            leaf.values[leaf.size] = nextSibling.values[0];
+            leaf.size++;
+            System.arraycopy(nextSibling.keys, 1, nextSibling.keys, 0, nextSibling.size - 1);
+            System.arraycopy(nextSibling.values, 1, nextSibling.values, 0, nextSibling.size - 1);
+            nextSibling.size--;
+            nextSibling.values[nextSibling.size] = null;
+            parent.keys[idx] = nextSibling.keys[0];
+        } else if (prevSibling != null) {
+            mergeLeaves(parent, idx - 1);
+        } else {
+            mergeLeaves(parent, idx);
+        }
+    }
+
+    // children[leftIdx] 와 children[leftIdx + 1] 을 합친다. 리프 병합에는 구분 키가 내려오지 않는다.
+    private void mergeLeaves(Node parent, int leftIdx) {
+        Node left = parent.children[leftIdx];
+        Node right = parent.children[leftIdx + 1];
+
+        System.arraycopy(right.keys, 0, left.keys, left.size, right.size);
+        System.arraycopy(right.values, 0, left.values, left.size, right.size);
+        left.size += right.size;
+
+        left.next = right.next;
+        if (right.next != null) right.next.prev = left;
+
+        removeFromParent(parent, leftIdx);
+    }
+
+    private void rebalanceInternal(Node node) {
+        Node parent = node.parent;
+        int idx = indexOfChild(parent, node);
+        Node prevSibling = idx > 0 ? parent.children[idx - 1] : null;
+        Node nextSibling = idx < parent.size ? parent.children[idx + 1] : null;
+
+        if (prevSibling != null && prevSibling.size > minKeys) {
+            System.arraycopy(node.keys, 0, node.keys, 1, node.size);
+            System.arraycopy(node.children, 0, node.children, 1, node.size + 1);
+            node.keys[0] = parent.keys[idx - 1];
+            node.children[0] = prevSibling.children[prevSibling.size];
+            node.children[0].parent = node;
+            node.size++;
+
+            prevSibling.children[prevSibling.size] = null;
+            prevSibling.size--;
+            parent.keys[idx - 1] = prevSibling.keys[prevSibling.size];
+        } else if (nextSibling != null && nextSibling.size > minKeys) {
+            node.keys[node.size] = parent.keys[idx];
+            node.children[node.size + 1] = nextSibling.children[0];
+            node.children[node.size + 1].parent = node;
+            node.size++;
+
+            parent.keys[idx] = nextSibling.keys[0];
+            System.arraycopy(nextSibling.keys, 1, nextSibling.keys, 0, nextSibling.size - 1);
+            System.arraycopy(nextSibling.children, 1, nextSibling.children, 0, nextSibling.size);
+            nextSibling.children[nextSibling.size] = null;
+            nextSibling.size--;
+        } else {
+            int leftIdx = prevSibling != null ? idx - 1 : idx;
+            Node left = parent.children[leftIdx];
+            Node right = parent.children[leftIdx + 1];
+
+            left.keys[left.size] = parent.keys[leftIdx];
+            System.arraycopy(right.keys, 0, left.keys, left.size + 1, right.size);
+            System.arraycopy(right.children, 0, left.children, left.size + 1, right.size + 1);
+            for (int i = 0; i <= right.size; i++) {
+                right.children[i].parent = left;
+            }
+            left.size += right.size + 1;
+
+            removeFromParent(parent, leftIdx);
+        }
+    }
+
+    // 병합으로 사라진 children[leftIdx + 1] 과 그 앞의 구분 키를 부모에서 지운다
+    private void removeFromParent(Node parent, int leftIdx) {
+        System.arraycopy(parent.keys, leftIdx + 1, parent.keys, leftIdx, parent.size - leftIdx - 1);
+        System.arraycopy(parent.children, leftIdx + 2, parent.children, leftIdx + 1, parent.size - leftIdx - 1);
+        parent.children[parent.size] = null;
+        parent.size--;
+
+        if (parent == root) {
+            if (parent.size == 0) {
+                root = parent.children[0];
+                root.parent = null;
+            }
+        } else if (parent.size < minKeys) {
+            rebalanceInternal(parent);
+        }
+    }
+
+    private int indexOfChild(Node parent, Node child) {
+        for (int i = 0; i <= parent.size; i++) {
+            if (parent.children[i] == child) return i;
+        }
+        return -1;
+    }
+
+    public void print() {
+        System.out.println();
+        printTree(root, 0);
+        System.out.println();
+    }
+
+    private void printTree(Node node, int level) {
+        if (node == null)
+            return;
+        System.out.print("Level " + level + (node.isLeaf ? " leaf [" : " ["));
+        for (int i = 0; i < node.size; i++) {
+            System.out.print(node.keys[i] + " ");
+        }
+        System.out.println("]");
+        if (!node.isLeaf) {
+            for (int i = 0; i <= node.size; i++) {
+                printTree(node.children[i], level + 1);
+            }
+        }
+    }
+
+    public static class Entry {
+        private final int key;
+        private final String value;
+
+        public Entry(int key, String value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        public int getKey() {
+            return key;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    /**
+     * 리프 체인을 따라가는 구간 커서.
+     * trySplit 은 루트에서 내려가며 구간이 여러 자식에 걸치는 첫 노드의 가운데 구분 키로 구간을 반으로 나눈다.
+     * 그래서 분할은 O(트리 높이)이고, 나뉜 각 조각은 다시 자기 시작 리프부터 순차로 읽는다.
+     */
+    public class RangeCursor implements Spliterator<Entry> {
+        private int lo;
+        private final int hi;
+        private long estimate;
+        private Node leaf;      // null 이면 아직 위치를 잡지 않은 상태
+        private int idx;
+        private boolean exhausted;
+        private int key;
+        private String value;
+
+        RangeCursor(int lo, int hi, long estimate) {
+            this.lo = lo;
+            this.hi = hi;
+            this.estimate = estimate;
+        }
+
+        /** 다음 항목으로 이동한다. 이동했으면 {@link #key()}, {@link #value()} 로 읽는다. */
+        public boolean next() {
+            if (exhausted) return false;
+            if (root == null || lo > hi) {
+                exhausted = true;
+                return false;
+            }
+            if (leaf == null) {
+                leaf = findLeaf(lo);
+                int pos = Arrays.binarySearch(leaf.keys, 0, leaf.size, lo);
+                idx = pos >= 0 ? pos : -(pos + 1);
+            }
+            while (leaf != null && idx >= leaf.size) {
+                leaf = leaf.next;
+                idx = 0;
+            }
+            if (leaf == null || leaf.keys[idx] > hi) {
+                leaf = null;
+                exhausted = true;
+                return false;
+            }
+            key = leaf.keys[idx];
+            value = leaf.values[idx];
+            idx++;
+            return true;
+        }
+
+        public int key() {
+            return key;
+        }
+
+        public String value() {
+            return value;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Entry> action) {
+            if (!next()) return false;
+            action.accept(new Entry(key, value));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Entry> action) {
+            while (next()) {
+                action.accept(new Entry(key, value));
+            }
+        }
+
+        @Override
+        public Spliterator<Entry> trySplit() {
+            if (exhausted || root == null) return null;
+            if (leaf != null) {
+                // 이미 읽기 시작했다면 다음에 읽을 키부터를 남은 구간으로 본다
+                while (leaf != null && idx >= leaf.size) {
+                    leaf = leaf.next;
+                    idx = 0;
+                }
+                if (leaf == null || leaf.keys[idx] > hi) {
+                    leaf = null;
+                    exhausted = true;
+                    return null;
+                }
+                lo = leaf.keys[idx];
+            }
+
+            Node current = root;
+            while (!current.isLeaf) {
+                int a = childIndex(current, lo);
+                int b = childIndex(current, hi);
+                if (b > a) {
+                    int split = current.keys[(a + b + 1) / 2 - 1];     // lo < split <= hi
+                    estimate >>>= 1;
+                    RangeCursor prefix = new RangeCursor(lo, split - 1, estimate);
+                    lo = split;
+                    leaf = null;
+                    return prefix;
+                }
+                current = current.children[a];
+            }
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | NONNULL;
+        }
+    }
+
+    /**
+     * 노드 레이아웃은 BTree 와 같다. 리프만 values 와 형제 포인터를 갖고, 내부 노드만 children 을 갖는다.
+     */
+    private class Node {
+        int[] keys;
+        String[] values;
+        Node[] children;
+        int size;
+        boolean isLeaf;
+        Node parent;
+        Node prev;
+        Node next;
+
+        public Node(Node parent, boolean isLeaf) {
+            keys = new int[degrees];
+            values = isLeaf ? new String[degrees] : null;
+            children = isLeaf ? null : new Node[degrees + 1];
+            this.isLeaf = isLeaf;
+            this.parent = parent;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
+        StringTokenizer st;
+        System.out.print("Enter the degree of B+Tree: ");
+        int degree = Integer.parseInt(br.readLine());
+        BPlusTree tree = new BPlusTree(degree);
+
+        System.out.println("사용 가능한 명령어:");
+        System.out.println("  insert <key> <value>  : 키와 값을 삽입");
+        System.out.println("  delete <key>          : 키를 삭제");
+        System.out.println("  search <key>          : 키의 값을 출력");
+        System.out.println("  range <from> <to>     : 구간 [from, to] 의 키와 값을 출력");
+        System.out.println("  quit 또는 q            : 종료");
+
+        while (true) {
+            System.out.print("명령어 입력: ");
+            String line = br.readLine();
+            if (line == null) break;
+            line = line.trim();
+            if (line.equalsIgnoreCase("q") || line.equalsIgnoreCase("quit")) {
+                break;
+            }
+            st = new StringTokenizer(line);
+            if (!st.hasMoreTokens())
+                continue;
+            String command = st.nextToken();
+            try {
+                if (command.equalsIgnoreCase("insert") || command.equalsIgnoreCase("i")) {
+                    int key = Integer.parseInt(st.nextToken());
+                    String value = st.hasMoreTokens() ? st.nextToken() : "";
+                    tree.insert(key, value);
+                } else if (command.equalsIgnoreCase("delete") || command.equalsIgnoreCase("d")) {
+                    tree.delete(Integer.parseInt(st.nextToken()));
+                } else if (command.equalsIgnoreCase("search") || command.equalsIgnoreCase("s")) {
+                    int key = Integer.parseInt(st.nextToken());
+                    System.out.println("검색 결과: key = " + key + ", value = " + tree.search(key));
+                } else if (command.equalsIgnoreCase("range") || command.equalsIgnoreCase("r")) {
+                    int from = Integer.parseInt(st.nextToken());
+                    int to = Integer.parseInt(st.nextToken());
+                    RangeCursor cursor = tree.rangeScan(from, to);
+                    while (cursor.next()) {
+                        System.out.print(cursor.key() + "=" + cursor.value() + " ");
+                    }
+                    System.out.println();
+                } else {
+                    System.out.println("알 수 없는 명령어입니다.");
+                    continue;
+                }
+                tree.print();
+            } catch (NumberFormatException e) {
+                System.out.println("잘못된 key 형식입니다.");
+            } catch (NoSuchElementException e) {
+                System.out.println("인자가 부족합니다.");
+            }
+        }
+        System.out.println("프로그램을 종료합니다.");
+    }
+}
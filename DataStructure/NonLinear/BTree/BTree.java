@@ -2,271 +2,482 @@ package DataStructure.NonLinear.BTree;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.StringTokenizer;
 
 public class BTree {
+    private static final int LINEAR_SEARCH_MAX = 16;   // 이 개수 이하의 키를 가진 노드는 선형 탐색
     private int degrees;
     private int minKeys;
     private int maxKeys;
     private Node root;
+    private BTreeListener listener = BTreeListener.NONE;
+
+    // 루트에서 내려온 경로. pathNodes[d] 는 깊이 d 의 노드, pathSlots[d] 는 거기서 내려간 자식 번호.
+    // 분할/회전/병합에서 부모와 부모 안의 위치를 다시 찾지 않고 여기서 꺼낸다.
+    private Node[] pathNodes = new Node[16];
+    private int[] pathSlots = new int[16];
 
     public BTree(int degrees) {
+        if (degrees < 3) {
+            throw new IllegalArgumentException("degrees must be at least 3: " + degrees);
+        }
         this.root = null;
         this.degrees = degrees;
         this.maxKeys = degrees - 1;
-        this.minKeys = degrees / 2;
+        this.minKeys = (degrees - 1) / 2;   // ⌈M/2⌉ - 1
+    }
+
+    public BTree(int degrees, BTreeListener listener) {
+        this(degrees);
+        setListener(listener);
+    }
+
+    public void setListener(BTreeListener listener) {
+        this.listener = listener == null ? BTreeListener.NONE : listener;
     }
 
-    public String search(Integer key) {
+    public String search(int key) {
         Node current = root;
         while (current != null) {
-            if(current.keys.contains(key)) {
-                return current.addresses.get(current.keys.indexOf(key));
-            } else {
-                int idx = -(Collections.binarySearch(current.keys, key) + 1);
-                try {
-                    current = current.children.get(idx);
-                } catch (ArrayIndexOutOfBoundsException e) {
-                    return null;
-                }
+            int idx = find(current, key);
+            if (idx >= 0) {
+                return current.addresses[idx];
+            }
+            if (current.isLeaf) {
+                return null;
             }
+            current = current.children[-(idx + 1)];
         }
         return null;
     }
 
-    public void insert(Integer key, String address) {
-        System.out.println("Inserting " + key + " " + address);
+    /**
+     * 오름차순으로 정렬된 키 여러 개를 한 번에 찾아 out[i] 에 sortedKeys[i] 의 값을 채운다. (없으면 null)
+     * 루트에서 한 번만 내려가면서 키 묶음을 자식별로 나누므로, 여러 키가 함께 지나는 위쪽 노드는 묶음당 한 번만 읽는다.
+     * 결과를 호출하는 쪽 배열에 쓰므로 할당이 없다.
+     */
+    public void searchAll(int[] sortedKeys, String[] out) {
+        if (out.length < sortedKeys.length) {
+            throw new IllegalArgumentException("out is shorter than sortedKeys: " + out.length + " < " + sortedKeys.length);
+        }
+        for (int i = 1; i < sortedKeys.length; i++) {
+            if (sortedKeys[i - 1] > sortedKeys[i]) {
+                throw new IllegalArgumentException("keys must be sorted: " + sortedKeys[i - 1] + " -> " + sortedKeys[i]);
+            }
+        }
+        if (root == null) {
+            Arrays.fill(out, 0, sortedKeys.length, null);
+            return;
+        }
+        searchAll(root, sortedKeys, 0, sortedKeys.length, out);
+    }
+
+    // keys[from, to) 는 모두 node 의 구간 안에 있다. 노드 키와 같은 것은 바로 채우고, 나머지는 같은 자식으로 가는 것끼리 묶어 내려보낸다.
+    private void searchAll(Node node, int[] keys, int from, int to, String[] out) {
+        int slot = 0;
+        int i = from;
+        while (i < to) {
+            int idx = find(node, slot, keys[i]);
+            if (idx >= 0) {
+                out[i++] = node.addresses[idx];
+                slot = idx;
+                continue;
+            }
+            slot = -(idx + 1);
+
+            // 다음 노드 키보다 작은 키들은 모두 children[slot] 으로 간다
+            int end = i + 1;
+            if (slot == node.size) {
+                end = to;
+            } else {
+                int bound = node.keys[slot];
+                while (end < to && keys[end] < bound) end++;
+            }
+            if (node.isLeaf) {
+                Arrays.fill(out, i, end, null);
+            } else {
+                searchAll(node.children[slot], keys, i, end, out);
+            }
+            i = end;
+        }
+    }
+
+    public void insert(int key, String address) {
+        listener.onInsert(key, address);
 
         if(root == null) {
-            root = new Node(null, true);
-            root.keys.add(key);
-            root.addresses.add(address);
+            root = new Node(true);
+            root.keys[0] = key;
+            root.addresses[0] = address;
+            root.size = 1;
             return;
         }
 
         Node current = root;
-        while (!current.isLeaf) {
-            int idx = -(Collections.binarySearch(current.keys, key) + 1);
-            if(idx < 0) return;
-            if (idx >= current.children.size()) {
-                current.children.add(new Node(current, true));
-                current.isLeaf = false;
+        int depth = 0;
+        while (true) {
+            int idx = find(current, key);
+            if(idx >= 0) return;    // 이미 존재하는 키
+            idx = -(idx + 1);
+            if(current.isLeaf) {
+                insertAt(current, idx, key, address);
+                break;
             }
-            current = current.children.get(idx);
+            push(depth++, current, idx);
+            current = current.children[idx];
         }
 
-        int idx = -(Collections.binarySearch(current.keys, key) + 1);
-        if(idx < 0) return;
-
-        current.keys.add(idx, key);
-        current.addresses.add(idx, address);
-
-        print();
+        listener.onChanged(this);
 
-        if(current.keys.size() > maxKeys) split(current);
+        if(current.size > maxKeys) split(current, depth);
     }
 
-    public void split(Node current) {
-        System.out.println("Splitting");
-        int midIdx = current.keys.size() / 2;
-        Integer midKey = current.keys.get(midIdx);
-        String midAddress = current.addresses.get(midIdx);
+    // depth 는 current 의 깊이. 부모는 pathNodes[depth - 1] 이다.
+    private void split(Node current, int depth) {
+        listener.onSplit();
+        int midIdx = current.size / 2;
+        int midKey = current.keys[midIdx];
+        String midAddress = current.addresses[midIdx];
 
         Node parent;
         int childIndex;
-        if(current == root) {
-            parent = new Node(null, false);
+        if(depth == 0) {
+            parent = new Node(false);
+            parent.children[0] = current;
             root = parent;
             childIndex = 0;
-            current.parent = parent;
         } else {
-            parent = current.parent;
-            childIndex = parent.children.indexOf(current);
-            parent.children.remove(childIndex);
-        }
-
-        parent.keys.add(childIndex, midKey);
-        parent.addresses.add(childIndex, midAddress);
-
-        Node left = new Node(parent, current.isLeaf);
-        Node right = new Node(parent, current.isLeaf);
-
-        for(int i = 0; i < midIdx; i++) {
-            left.keys.add(current.keys.get(i));
-            left.addresses.add(current.addresses.get(i));
-            if (!current.isLeaf && i < current.children.size()) {
-                left.children.add(current.children.get(i));
-                current.children.get(i).parent = left;
-            }
-        }
-        if (!current.isLeaf && current.children.size() > midIdx) {
-            left.children.add(current.children.get(midIdx));
-            current.children.get(midIdx).parent = left;
+            parent = pathNodes[depth - 1];
+            childIndex = pathSlots[depth - 1];
         }
 
-        for(int i = midIdx + 1; i < current.keys.size(); i++) {
-            right.keys.add(current.keys.get(i));
-            right.addresses.add(current.addresses.get(i));
-            if (!current.isLeaf && i < current.children.size()) {
-                right.children.add(current.children.get(i));
-                current.children.get(i).parent = right;
-            }
-        }
-        if (!current.isLeaf && current.children.size() > current.keys.size()) {
-            right.children.add(current.children.get(current.keys.size()));
-            current.children.get(current.keys.size()).parent = right;
+        // current 는 왼쪽 노드로 재사용하고, 중간 키 이후만 새 오른쪽 노드로 옮긴다
+        Node right = new Node(current.isLeaf);
+        int rightSize = current.size - midIdx - 1;
+        System.arraycopy(current.keys, midIdx + 1, right.keys, 0, rightSize);
+        System.arraycopy(current.addresses, midIdx + 1, right.addresses, 0, rightSize);
+        if (!current.isLeaf) {
+            System.arraycopy(current.children, midIdx + 1, right.children, 0, rightSize + 1);
+            Arrays.fill(current.children, midIdx + 1, current.size + 1, null);
         }
+        Arrays.fill(current.addresses, midIdx, current.size, null);
+        current.size = midIdx;
+        right.size = rightSize;
 
-        parent.children.add(childIndex, left);
-        parent.children.add(childIndex + 1, right);
+        insertAt(parent, childIndex, midKey, midAddress);
+        parent.children[childIndex + 1] = right;
 
-        print();
+        listener.onChanged(this);
 
-        if(parent.keys.size() > maxKeys) split(parent);
+        if(parent.size > maxKeys) split(parent, depth - 1);
     }
 
-    public void delete(Integer key) {
-        System.out.println("Deleting " + key);
+    public void delete(int key) {
+        listener.onDelete(key);
 
         if(root == null) return;
         Node current = root;
+        int depth = 0;
+        int idx;
 
-        while(current != null && !current.keys.contains(key)) {
-            int idx = -(Collections.binarySearch(current.keys, key) + 1);
-            current = current.children.get(idx);
+        while (true) {
+            idx = find(current, key);
+            if (idx >= 0) break;
+            if (current.isLeaf) return;
+            push(depth++, current, -(idx + 1));
+            current = current.children[-(idx + 1)];
         }
 
-        if(current == null) return;
-        int idx = current.keys.indexOf(key);
         if(current.isLeaf) {
-            current.keys.remove(idx);
-            current.addresses.remove(idx);
-            if(current.keys.size() < minKeys) rotate(current);
+            removeAt(current, idx);
+            if(current == root && current.size == 0) {
+                root = null;
+            } else if(current.size < minKeys) {
+                rotate(current, depth);
+            }
         } else {    // predecessor 와 교환 후 삭제
-            Node preNode = current.children.get(idx);
+            push(depth++, current, idx);
+            Node preNode = current.children[idx];
             while(!preNode.isLeaf) {
-                preNode = preNode.children.getLast();
+                push(depth++, preNode, preNode.size);
+                preNode = preNode.children[preNode.size];
             }
-            current.keys.set(idx, preNode.keys.getLast());
-            current.addresses.set(idx, preNode.addresses.getLast());
-            preNode.keys.removeLast();
-            preNode.addresses.removeLast();
-            if(preNode.keys.size() < minKeys) rotate(preNode);
+            current.keys[idx] = preNode.keys[preNode.size - 1];
+            current.addresses[idx] = preNode.addresses[preNode.size - 1];
+            removeAt(preNode, preNode.size - 1);
+            if(preNode.size < minKeys) rotate(preNode, depth);
         }
 
-        print();
+        listener.onChanged(this);
     }
 
-    public void rotate(Node current) {
-        if(current == root) return;
-        Node parent = current.parent;
-        int idx = parent.children.indexOf(current);
+    // depth 는 current 의 깊이. 부모와 부모 안의 위치는 경로에 기록되어 있다.
+    private void rotate(Node current, int depth) {
+        if(depth == 0) return;
+        Node parent = pathNodes[depth - 1];
+        int idx = pathSlots[depth - 1];
         Node prevSibling = null;
         Node nextSibling = null;
 
         if(idx != 0) {
-            prevSibling = parent.children.get(idx - 1);
+            prevSibling = parent.children[idx - 1];
         }
 
-        if(idx != parent.children.size() - 1) {
-            nextSibling = parent.children.get(idx + 1);
+        if(idx != parent.size) {
+            nextSibling = parent.children[idx + 1];
         }
 
-        if(prevSibling != null && prevSibling.keys.size() > minKeys) {
-            System.out.println("Borrowing from previous sibling");
-
-            Integer prevKey = prevSibling.keys.removeLast();
-            String prevAddress = prevSibling.addresses.removeLast();
-            Node prevChild = null;
-            if(prevSibling.isLeaf && !prevSibling.children.isEmpty()) {
-                prevChild = prevSibling.children.removeLast();
-                prevChild.parent = current;
+        if(prevSibling != null && prevSibling.size > minKeys) {
+            listener.onBorrowFromPrevious();
+
+            // current 맨 앞을 비우고 부모 키를 내려받는다
+            System.arraycopy(current.keys, 0, current.keys, 1, current.size);
+            System.arraycopy(current.addresses, 0, current.addresses, 1, current.size);
+            current.keys[0] = parent.keys[idx - 1];
+            current.addresses[0] = parent.addresses[idx - 1];
+            if(!current.isLeaf) {
+                System.arraycopy(current.children, 0, current.children, 1, current.size + 1);
+                Node prevChild = prevSibling.children[prevSibling.size];
+                prevSibling.children[prevSibling.size] = null;
+                current.children[0] = prevChild;
             }
+            current.size++;
 
-            Integer parentKey = parent.keys.get(idx-1);
-            String parentAddress = parent.addresses.get(idx-1);
+            int last = prevSibling.size - 1;
+            parent.keys[idx - 1] = prevSibling.keys[last];
+            parent.addresses[idx - 1] = prevSibling.addresses[last];
+            prevSibling.addresses[last] = null;
+            prevSibling.size--;
 
-            parent.keys.set(idx-1, prevKey);
-            parent.addresses.set(idx-1, prevAddress);
+            listener.onChanged(this);
 
-            current.keys.addFirst(parentKey);
-            current.addresses.addFirst(parentAddress);
+        } else if(nextSibling != null && nextSibling.size > minKeys) {
+            listener.onBorrowFromNext();
 
-            if(!current.isLeaf && prevChild != null) {
-                current.children.add(0, prevChild);
+            current.keys[current.size] = parent.keys[idx];
+            current.addresses[current.size] = parent.addresses[idx];
+            if(!current.isLeaf) {
+                current.children[current.size + 1] = nextSibling.children[0];
+                System.arraycopy(nextSibling.children, 1, nextSibling.children, 0, nextSibling.size);
+                nextSibling.children[nextSibling.size] = null;
             }
+            current.size++;
 
-            print();
-
-        } else if(nextSibling != null && nextSibling.keys.size() > minKeys) {
-            System.out.println("Borrowing from next sibling");
+            parent.keys[idx] = nextSibling.keys[0];
+            parent.addresses[idx] = nextSibling.addresses[0];
+            System.arraycopy(nextSibling.keys, 1, nextSibling.keys, 0, nextSibling.size - 1);
+            System.arraycopy(nextSibling.addresses, 1, nextSibling.addresses, 0, nextSibling.size - 1);
+            nextSibling.addresses[nextSibling.size - 1] = null;
+            nextSibling.size--;
 
-            Integer nextKey = nextSibling.keys.removeFirst();
-            String nextAddress = nextSibling.addresses.removeFirst();
-            Node nextChild = null;
-            if(!nextSibling.isLeaf && !nextSibling.children.isEmpty()) {
-                nextChild = nextSibling.children.removeFirst();
-                nextChild.parent = current;
+            listener.onChanged(this);
+        } else {
+            listener.onCannotBorrow();
+            if(idx > 0) {
+                merge(parent, idx-1, idx, depth - 1);
+            } else {
+                merge(parent, idx, idx+1, depth - 1);
             }
+        }
+    }
 
-            Integer parentKey = parent.keys.get(idx);
-            String parentAddress = parent.addresses.get(idx);
+    private void merge(Node parent, int leftIdx, int rightIdx, int parentDepth) {
+        listener.onMerge();
 
-            parent.keys.set(idx, nextKey);
-            parent.addresses.set(idx, nextAddress);
+        Node left = parent.children[leftIdx];
+        Node right = parent.children[rightIdx];
 
-            current.keys.add(parentKey);
-            current.addresses.add(parentAddress);
+        // 부모의 구분 키를 내려받고 오른쪽 노드를 그대로 이어붙인다
+        left.keys[left.size] = parent.keys[leftIdx];
+        left.addresses[left.size] = parent.addresses[leftIdx];
+        System.arraycopy(right.keys, 0, left.keys, left.size + 1, right.size);
+        System.arraycopy(right.addresses, 0, left.addresses, left.size + 1, right.size);
 
-            if(!current.isLeaf && nextChild != null) {
-                current.children.add(nextChild);
-            }
+        if (!left.isLeaf) {
+            System.arraycopy(right.children, 0, left.children, left.size + 1, right.size + 1);
+        }
+        left.size += right.size + 1;
 
-            print();
-        } else {
-            System.out.println("Cant't borrow");
-            if(idx > 0) {
-                merge(parent, idx-1, idx);
-            } else {
-                merge(parent, idx, idx+1);
-            }
+        removeAt(parent, leftIdx);
+        System.arraycopy(parent.children, rightIdx + 1, parent.children, rightIdx, parent.size + 1 - rightIdx);
+        parent.children[parent.size + 1] = null;
+
+        listener.onChanged(this);
+
+        if(parent == root && parent.size == 0) {
+            root = left;
+        } else if(parent.size < minKeys) {
+            rotate(parent, parentDepth);
         }
     }
 
-    public void merge(Node parent, int leftIdx, int rightIdx) {
-        System.out.println("Merging");
+    /**
+     * 오름차순으로 정렬된 키/값을 루트에서 내려가지 않고 아래에서 위로 한 번에 쌓는다.
+     * 각 레벨의 가장 오른쪽 노드만 열어 두고 채우기 때문에 입력 전체를 메모리에 올릴 필요가 없다.
+     * fillFactor 는 노드를 maxKeys 의 몇 배까지 채울지를 (0, 1] 범위로 정한다.
+     */
+    public void bulkLoad(Iterator<? extends Map.Entry<Integer, String>> source, double fillFactor) {
+        BulkLoader loader = new BulkLoader(fillFactor);
+        while (source.hasNext()) {
+            Map.Entry<Integer, String> entry = source.next();
+            loader.add(entry.getKey(), entry.getValue());
+        }
+        loader.finish();
+    }
 
-        Node left = parent.children.get(leftIdx);
-        Node right = parent.children.get(rightIdx);
+    public void bulkLoad(int[] keys, String[] addresses, double fillFactor) {
+        if (keys.length != addresses.length) {
+            throw new IllegalArgumentException("keys and addresses must have the same length");
+        }
+        BulkLoader loader = new BulkLoader(fillFactor);
+        for (int i = 0; i < keys.length; i++) {
+            loader.add(keys[i], addresses[i]);
+        }
+        loader.finish();
+    }
 
-        int parentKey = parent.keys.get(leftIdx);
-        String parentAddress = parent.addresses.get(leftIdx);
+    private class BulkLoader {
+        private final int target;
+        private final List<Node> rightmost = new ArrayList<>();    // 레벨별로 아직 채우는 중인 노드 (0 = 리프)
+        private int lastKey;
 
-        parent.keys.remove(leftIdx);
-        parent.addresses.remove(leftIdx);
-        parent.children.remove(rightIdx);
+        BulkLoader(double fillFactor) {
+            if (root != null) {
+                throw new IllegalStateException("bulkLoad requires an empty tree");
+            }
+            if (!(fillFactor > 0 && fillFactor <= 1)) {
+                throw new IllegalArgumentException("fillFactor must be in (0, 1]: " + fillFactor);
+            }
+            this.target = Math.max(minKeys, Math.min(maxKeys, (int) Math.ceil(maxKeys * fillFactor)));
+        }
 
-        left.keys.add(parentKey);
-        left.addresses.add(parentAddress);
+        void add(int key, String address) {
+            if (rightmost.isEmpty()) {
+                rightmost.add(new Node(true));
+            } else if (key <= lastKey) {
+                throw new IllegalArgumentException("keys must be strictly ascending: " + lastKey + " -> " + key);
+            }
+            lastKey = key;
+            append(0, key, address, null);
+        }
 
-        left.keys.addAll(right.keys);
-        left.addresses.addAll(right.addresses);
+        private void append(int level, int key, String address, Node right) {
+            Node node = rightmost.get(level);
+            if (node.size < target) {
+                node.keys[node.size] = key;
+                node.addresses[node.size] = address;
+                if (right != null) {
+                    node.children[node.size + 1] = right;
+                }
+                node.size++;
+                return;
+            }
 
-        if (!left.isLeaf) {
-            left.children.addAll(right.children);
-            for(Node child : right.children) {
-                child.parent = left;
+            // 가득 찬 노드는 닫고, key 는 위 레벨의 구분 키로 올린 뒤 같은 레벨에 새 노드를 연다
+            Node fresh = new Node(level == 0);
+            if (right != null) {
+                fresh.children[0] = right;
+            }
+            rightmost.set(level, fresh);
+            if (level + 1 == rightmost.size()) {
+                Node parent = new Node(false);
+                parent.children[0] = node;
+                rightmost.add(parent);
             }
+            append(level + 1, key, address, fresh);
         }
 
-        print();
+        /** 마지막에 열려 있던 오른쪽 끝 노드들만 최소 키 수에 못 미칠 수 있으므로 위에서부터 회전/병합으로 보정한다. */
+        void finish() {
+            if (rightmost.isEmpty()) return;
+            root = rightmost.get(rightmost.size() - 1);
+
+            for (int level = rightmost.size() - 2; level >= 0; level--) {
+                Node node = rightmost.get(level);
+                while (node != root && node.size < minKeys) {
+                    int depth = rightmostPath(node);
+                    Node parent = pathNodes[depth - 1];
+                    boolean willMerge = parent.children[parent.size - 1].size <= minKeys;
+                    rotate(node, depth);
+                    if (willMerge) break;
+                }
+            }
+        }
 
-        if(parent == root && parent.keys.isEmpty()) {
-            root = left;
-            left.parent = null;
-        } else if(parent.keys.size() < minKeys) {
-            rotate(parent);
+        // 오른쪽 끝 노드들은 루트에서 늘 마지막 자식을 따라가면 나온다. 그 경로를 기록하고 node 의 깊이를 돌려준다.
+        private int rightmostPath(Node node) {
+            int depth = 0;
+            for (Node current = root; current != node; current = current.children[current.size]) {
+                push(depth++, current, current.size);
+            }
+            return depth;
+        }
+    }
+
+    /**
+     * 노드 안에서 key 를 찾는 단일 루틴. 찾으면 위치, 없으면 -(들어갈 위치 + 1) 을 돌려준다. (Arrays.binarySearch 와 같은 규약)
+     * 키가 적은 노드는 key 보다 작은 키의 수를 세는 분기 없는 선형 탐색이 이진 탐색의 예측 실패보다 빠르고,
+     * 큰 노드는 이진 탐색으로 레벨당 O(log degrees) 에 찾는다.
+     */
+    private static int find(Node node, int key) {
+        return find(node, 0, key);
+    }
+
+    // keys[from, size) 안에서만 찾는다. 반환하는 위치는 노드 전체 기준이다. (searchAll 이 앞에서 지나온 키를 다시 보지 않게 한다)
+    private static int find(Node node, int from, int key) {
+        int[] keys = node.keys;
+        int size = node.size;
+        if (size - from > LINEAR_SEARCH_MAX) {
+            return Arrays.binarySearch(keys, from, size, key);
         }
+        int pos = from;
+        for (int i = from; i < size; i++) {
+            pos += keys[i] < key ? 1 : 0;
+        }
+        return pos < size && keys[pos] == key ? pos : -(pos + 1);
+    }
+
+    private void push(int depth, Node node, int slot) {
+        if (depth == pathNodes.length) {
+            pathNodes = Arrays.copyOf(pathNodes, depth * 2);
+            pathSlots = Arrays.copyOf(pathSlots, depth * 2);
+        }
+        pathNodes[depth] = node;
+        pathSlots[depth] = slot;
+    }
+
+    private void insertAt(Node node, int idx, int key, String address) {
+        int moved = node.size - idx;
+        System.arraycopy(node.keys, idx, node.keys, idx + 1, moved);
+        System.arraycopy(node.addresses, idx, node.addresses, idx + 1, moved);
+        if (!node.isLeaf) {
+            System.arraycopy(node.children, idx + 1, node.children, idx + 2, moved);
+        }
+        node.keys[idx] = key;
+        node.addresses[idx] = address;
+        node.size++;
+    }
+
+    private void removeAt(Node node, int idx) {
+        int moved = node.size - idx - 1;
+        System.arraycopy(node.keys, idx + 1, node.keys, idx, moved);
+        System.arraycopy(node.addresses, idx + 1, node.addresses, idx, moved);
+        node.size--;
+        node.addresses[node.size] = null;
+    }
+
+    /** 루트부터 리프까지의 레벨 수. 빈 트리는 0 이다. */
+    public int height() {
+        int height = 0;
+        for (Node node = root; node != null; node = node.isLeaf ? null : node.children[0]) {
+            height++;
+        }
+        return height;
     }
 
     public void print() {
@@ -279,30 +490,33 @@ public class BTree {
         if (node == null)
             return;
         System.out.print("Level " + level + " [");
-        for (Integer key : node.keys) {
-            System.out.print(key + " ");
+        for (int i = 0; i < node.size; i++) {
+            System.out.print(node.keys[i] + " ");
         }
         System.out.println("]");
         if (!node.isLeaf) {
-            for (Node child : node.children) {
-                printTree(child, level + 1);
+            for (int i = 0; i <= node.size; i++) {
+                printTree(node.children[i], level + 1);
             }
         }
     }
 
+    /**
+     * 키를 박싱하지 않도록 고정 크기 배열로 구성한 노드.
+     * 분할 직전에는 키가 maxKeys + 1 개까지 들어올 수 있으므로 배열 크기는 degrees 로 잡는다.
+     */
     private class Node {
-        List<Integer> keys;
-        List<String> addresses;
-        List<Node> children;    // children.size == keys.size + 1
+        int[] keys;
+        String[] addresses;
+        Node[] children;    // 리프는 null, 내부 노드는 children[0..size] 사용
+        int size;
         boolean isLeaf;
-        Node parent;
 
-        public Node(Node parent, boolean isLeaf) {
-            keys = new ArrayList<>();
-            addresses = new ArrayList<>();
-            children = new ArrayList<>();
+        public Node(boolean isLeaf) {
+            keys = new int[degrees];
+            addresses = new String[degrees];
+            children = isLeaf ? null : new Node[degrees + 1];
             this.isLeaf = isLeaf;
-            this.parent = parent;
         }
     }
 
@@ -311,7 +525,7 @@ public class BTree {
         StringTokenizer st;
         System.out.print("Enter the degree of B-Tree: ");
         int degree = Integer.parseInt(br.readLine());
-        BTree tree = new BTree(degree);
+        BTree tree = new BTree(degree, new PrintingBTreeListener());
 
         System.out.println("사용 가능한 명령어:");
         System.out.println("  insert <key> <value>  : 키와 값을 삽입");
@@ -333,7 +547,7 @@ public class BTree {
                 if (st.hasMoreTokens()) {
                     String keyStr = st.nextToken();
                     try {
-                        Integer key = Integer.parseInt(keyStr);
+                        int key = Integer.parseInt(keyStr);
                         String value = "";
                         if (st.hasMoreTokens()) {
                             value = st.nextToken();
@@ -350,7 +564,7 @@ public class BTree {
                 if (st.hasMoreTokens()) {
                     String keyStr = st.nextToken();
                     try {
-                        Integer key = Integer.parseInt(keyStr);
+                        int key = Integer.parseInt(keyStr);
                         tree.delete(key);
                         System.out.println("삭제됨: key = " + key);
                     } catch (NumberFormatException e) {
@@ -363,7 +577,7 @@ public class BTree {
                 if (st.hasMoreTokens()) {
                     String keyStr = st.nextToken();
                     try {
-                        Integer key = Integer.parseInt(keyStr);
+                        int key = Integer.parseInt(keyStr);
                         String result = tree.search(key);
                         if (result != null) {
                             System.out.println("검색 결과: key = " + key + ", value = " + result);
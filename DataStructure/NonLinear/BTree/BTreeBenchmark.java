@@ -0,0 +1,358 @@
+package DataStructure.NonLinear.BTree;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * BTree 의 차수(degrees)와 트리 크기, 키 분포에 따른 search / insert / delete / mixed 성능을 재는 벤치마크.
+ *
+ * JMH 와 같은 방식으로 설정마다 워밍업 반복을 버리고 측정 반복의 평균과 표준편차를 낸다.
+ * 스레드가 할당한 바이트(JMH 의 gc 프로파일러가 보여 주는 gc.alloc.rate.norm 과 같은 값)와 트리 높이도 함께 출력한다.
+ * 모든 설정을 한 JVM 에서 돌리므로 앞 설정의 JIT 프로파일이 뒤 설정에 남는다. 빠르게 훑어볼 때 쓰고,
+ * 설정끼리 비교할 숫자는 설정마다 JVM 을 새로 띄우는 benchmarks 모듈의 BTreeJmhBenchmark 로 잰다.
+ *
+ * <pre>
+ * java DataStructure.NonLinear.BTree.BTreeBenchmark -d 4,16,64,256 -n 100000,1000000 -w uniform,zipfian -o search,mixed
+ * </pre>
+ * 옵션 (모두 생략 가능)
+ * <ul>
+ *     <li>-d : 차수 목록</li>
+ *     <li>-n : 트리에 미리 넣어 둘 키 수 목록</li>
+ *     <li>-w : 키 분포 (uniform, zipfian, sequential, reverse)</li>
+ *     <li>-o : 연산 (search, insert, delete, mixed)</li>
+ *     <li>-wi / -i : 워밍업 / 측정 반복 횟수</li>
+ *     <li>-t : search, mixed 반복 하나의 시간(ms). insert, delete 는 반복마다 n 개를 넣고 지운다.</li>
+ * </ul>
+ */
+public class BTreeBenchmark {
+    static final int KEY_STREAM = 1 << 20;      // 미리 만들어 두는 키 수. 측정 중에는 난수를 만들지 않는다.
+
+    private static volatile long sink;      // JIT 이 결과를 버리고 연산을 없애지 못하게 한다
+
+    enum Workload { UNIFORM, ZIPFIAN, SEQUENTIAL, REVERSE }
+
+    enum Operation { SEARCH, INSERT, DELETE, MIXED }
+
+    public static void main(String[] args) {
+        int[] degrees = {4, 8, 16, 32, 64, 128, 256};
+        int[] sizes = {100_000, 1_000_000};
+        List<Workload> workloads = List.of(Workload.values());
+        List<Operation> operations = List.of(Operation.values());
+        int warmups = 3;
+        int iterations = 5;
+        long millis = 500;
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "-d": degrees = parseInts(value); break;
+                case "-n": sizes = parseInts(value); break;
+                case "-w": workloads = parseEnums(value, Workload.class); break;
+                case "-o": operations = parseEnums(value, Operation.class); break;
+                case "-wi": warmups = Integer.parseInt(value); break;
+                case "-i": iterations = Integer.parseInt(value); break;
+                case "-t": millis = Long.parseLong(value); break;
+                default: throw new IllegalArgumentException("unknown option: " + args[i]);
+            }
+        }
+
+        System.out.printf("%-7s %-11s %7s %10s %16s %10s %8s %7s%n",
+                "op", "workload", "degrees", "n", "ops/s", "stddev", "B/op", "height");
+        for (Operation operation : operations) {
+            for (Workload workload : workloads) {
+                for (int n : sizes) {
+                    int[] stream = keyStream(workload, operation == Operation.MIXED ? n * 2 : n, 42);
+                    for (int degree : degrees) {
+                        Result result = run(operation, stream, degree, n, warmups, iterations, millis);
+                        System.out.printf("%-7s %-11s %7d %10d %,16.0f %,10.0f %8.1f %7d%n",
+                                operation.name().toLowerCase(), workload.name().toLowerCase(), degree, n,
+                                result.mean, result.stddev, result.bytesPerOp, result.height);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Result run(Operation operation, int[] stream, int degrees, int n,
+                              int warmups, int iterations, long millis) {
+        double[] throughput = new double[iterations];
+        long totalOps = 0;
+        long totalBytes = 0;
+        int height = 0;
+        for (int iteration = -warmups; iteration < iterations; iteration++) {
+            Measurement m;
+            switch (operation) {
+                case SEARCH: m = search(stream, degrees, n, millis); break;
+                case INSERT: m = insert(stream, degrees, n); break;
+                case DELETE: m = delete(stream, degrees, n); break;
+                default: m = mixed(stream, degrees, n, millis); break;
+            }
+            if (iteration < 0) continue;
+            throughput[iteration] = m.ops * 1e9 / m.nanos;
+            totalOps += m.ops;
+            totalBytes += m.bytes;
+            height = m.height;
+        }
+
+        double mean = Arrays.stream(throughput).average().orElse(0);
+        double variance = Arrays.stream(throughput).map(x -> (x - mean) * (x - mean)).sum() / Math.max(1, iterations - 1);
+        return new Result(mean, Math.sqrt(variance), (double) totalBytes / Math.max(1, totalOps), height);
+    }
+
+    // 트리를 채우는 시간은 재지 않는다. 키 0 ~ n-1 을 무작위 순서로 넣어 분할이 골고루 일어난 모양으로 만든다.
+    static BTree filledTree(int degrees, int n, String[] values) {
+        BTree tree = new BTree(degrees);
+        for (int key : permutation(n, 7)) {
+            tree.insert(key, values[key & 1023]);
+        }
+        return tree;
+    }
+
+    private static Measurement search(int[] stream, int degrees, int n, long millis) {
+        String[] values = values();
+        BTree tree = filledTree(degrees, n, values);
+        long ops = 0;
+        long hash = 0;
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        long deadline = start + millis * 1_000_000;
+        int i = 0;
+        do {
+            // 시간 확인은 1024 번에 한 번만 한다
+            for (int j = 0; j < 1024; j++) {
+                String value = tree.search(stream[i]);
+                hash += value == null ? 0 : 1;
+                i = (i + 1) & (KEY_STREAM - 1);
+            }
+            ops += 1024;
+        } while (System.nanoTime() < deadline);
+        long nanos = System.nanoTime() - start;
+        bytes = allocatedBytes() - bytes;
+        sink += hash;
+        return new Measurement(ops, nanos, bytes, tree.height());
+    }
+
+    // 빈 트리에 분포대로 n 번 넣는다. zipfian 은 같은 키가 반복되므로 실제로 들어가는 키는 n 보다 적다.
+    private static Measurement insert(int[] stream, int degrees, int n) {
+        String[] values = values();
+        BTree tree = new BTree(degrees);
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            int key = stream[i & (KEY_STREAM - 1)];
+            tree.insert(key, values[key & 1023]);
+        }
+        long nanos = System.nanoTime() - start;
+        bytes = allocatedBytes() - bytes;
+        return new Measurement(n, nanos, bytes, tree.height());
+    }
+
+    private static Measurement delete(int[] stream, int degrees, int n) {
+        String[] values = values();
+        BTree tree = filledTree(degrees, n, values);
+        int height = tree.height();
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            tree.delete(stream[i & (KEY_STREAM - 1)]);
+        }
+        long nanos = System.nanoTime() - start;
+        bytes = allocatedBytes() - bytes;
+        return new Measurement(n, nanos, bytes, height);
+    }
+
+    // 키 공간 0 ~ 2n-1 중 절반을 넣어 두고 search 50%, insert 25%, delete 25% 를 섞는다. 트리 크기는 대략 n 으로 유지된다.
+    private static Measurement mixed(int[] stream, int degrees, int n, long millis) {
+        String[] values = values();
+        BTree tree = new BTree(degrees);
+        for (int key : permutation(2 * n, 7)) {
+            if ((key & 1) == 0) tree.insert(key, values[key & 1023]);
+        }
+        Random random = new Random(11);
+        byte[] mix = new byte[KEY_STREAM];
+        for (int i = 0; i < mix.length; i++) {
+            mix[i] = (byte) random.nextInt(4);
+        }
+
+        long ops = 0;
+        long hash = 0;
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        long deadline = start + millis * 1_000_000;
+        int i = 0;
+        do {
+            for (int j = 0; j < 1024; j++) {
+                int key = stream[i];
+                switch (mix[i]) {
+                    case 0: tree.insert(key, values[key & 1023]); break;
+                    case 1: tree.delete(key); break;
+                    default: hash += tree.search(key) == null ? 0 : 1; break;
+                }
+                i = (i + 1) & (KEY_STREAM - 1);
+            }
+            ops += 1024;
+        } while (System.nanoTime() < deadline);
+        long nanos = System.nanoTime() - start;
+        bytes = allocatedBytes() - bytes;
+        sink += hash;
+        return new Measurement(ops, nanos, bytes, tree.height());
+    }
+
+    /** 키 공간 [0, range) 에서 분포에 따라 KEY_STREAM 개의 키를 만든다. */
+    static int[] keyStream(Workload workload, int range, long seed) {
+        int[] keys = new int[KEY_STREAM];
+        switch (workload) {
+            case UNIFORM: {
+                Random random = new Random(seed);
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = random.nextInt(range);
+                }
+                break;
+            }
+            case ZIPFIAN: {
+                Zipfian zipfian = new Zipfian(range, 0.99, seed);
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = zipfian.next();
+                }
+                break;
+            }
+            case SEQUENTIAL:
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = i % range;
+                }
+                break;
+            case REVERSE:
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = range - 1 - i % range;
+                }
+                break;
+        }
+        return keys;
+    }
+
+    /**
+     * YCSB 의 scrambled zipfian. 순위 r 의 확률이 1 / r^theta 에 비례하고,
+     * 순위를 해시해서 키로 바꾸므로 자주 나오는 키들이 키 공간 한쪽에 몰리지 않는다.
+     */
+    static class Zipfian {
+        private final int range;
+        private final double theta;
+        private final double alpha;
+        private final double zetan;
+        private final double eta;
+        private final Random random;
+
+        Zipfian(int range, double theta, long seed) {
+            this.range = range;
+            this.theta = theta;
+            this.random = new Random(seed);
+            double zeta2 = zeta(2, theta);
+            this.zetan = zeta(range, theta);
+            this.alpha = 1.0 / (1.0 - theta);
+            this.eta = (1 - Math.pow(2.0 / range, 1 - theta)) / (1 - zeta2 / zetan);
+        }
+
+        private static double zeta(int n, double theta) {
+            double sum = 0;
+            for (int i = 1; i <= n; i++) {
+                sum += 1 / Math.pow(i, theta);
+            }
+            return sum;
+        }
+
+        int next() {
+            double u = random.nextDouble();
+            double uz = u * zetan;
+            long rank;
+            if (uz < 1.0) {
+                rank = 0;
+            } else if (uz < 1.0 + Math.pow(0.5, theta)) {
+                rank = 1;
+            } else {
+                rank = (long) (range * Math.pow(eta * u - eta + 1, alpha));
+            }
+            return (int) Math.floorMod(mix(rank), (long) range);
+        }
+
+        private static long mix(long x) {
+            x = (x ^ (x >>> 33)) * 0xff51afd7ed558ccdL;
+            x = (x ^ (x >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            return x ^ (x >>> 33);
+        }
+    }
+
+    static int[] permutation(int n, long seed) {
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = i;
+        }
+        Random random = new Random(seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = keys[i];
+            keys[i] = keys[j];
+            keys[j] = tmp;
+        }
+        return keys;
+    }
+
+    // 값 문자열을 측정 중에 만들면 할당량이 트리 자체의 할당을 가리므로 미리 만들어 돌려 쓴다
+    static String[] values() {
+        String[] values = new String[1024];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = "addr-" + i;
+        }
+        return values;
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private static int[] parseInts(String csv) {
+        return Arrays.stream(csv.split(",")).mapToInt(s -> Integer.parseInt(s.trim().replace("_", ""))).toArray();
+    }
+
+    private static <E extends Enum<E>> List<E> parseEnums(String csv, Class<E> type) {
+        List<E> list = new ArrayList<>();
+        for (String name : csv.split(",")) {
+            list.add(Enum.valueOf(type, name.trim().toUpperCase()));
+        }
+        return list;
+    }
+
+    private static class Measurement {
+        final long ops;
+        final long nanos;
+        final long bytes;
+        final int height;
+
+        Measurement(long ops, long nanos, long bytes, int height) {
+            this.ops = ops;
+            this.nanos = nanos;
+            this.bytes = bytes;
+            this.height = height;
+        }
+    }
+
+    private static class Result {
+        final double mean;
+        final double stddev;
+        final double bytesPerOp;
+        final int height;
+
+        Result(double mean, double stddev, double bytesPerOp, int height) {
+            this.mean = mean;
+            this.stddev = stddev;
+            this.bytesPerOp = bytesPerOp;
+            this.height = height;
+        }
+    }
+}
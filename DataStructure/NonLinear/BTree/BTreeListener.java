@@ -0,0 +1,27 @@
+package DataStructure.NonLinear.BTree;
+
+/**
+ * BTree 의 구조 변경 이벤트를 받아보는 리스너.
+ * 기본값인 {@link #NONE} 은 아무 일도 하지 않으므로 삽입/삭제/검색 경로에서 문자열 생성, 트리 순회, I/O 가 없다.
+ * 학습용 출력이 필요하면 {@link PrintingBTreeListener} 를 등록한다.
+ */
+public interface BTreeListener {
+    BTreeListener NONE = new BTreeListener() {};
+
+    default void onInsert(int key, String address) {}
+
+    default void onDelete(int key) {}
+
+    default void onSplit() {}
+
+    default void onBorrowFromPrevious() {}
+
+    default void onBorrowFromNext() {}
+
+    default void onCannotBorrow() {}
+
+    default void onMerge() {}
+
+    /** 한 단계의 구조 변경(삽입, 분할, 회전, 병합, 삭제)이 끝난 직후 호출된다. */
+    default void onChanged(BTree tree) {}
+}
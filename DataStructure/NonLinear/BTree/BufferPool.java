@@ -0,0 +1,153 @@
+package DataStructure.NonLinear.BTree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * PageFile 과 트리 사이에 있는 고정 크기 페이지 캐시.
+ * 프레임 수가 정해져 있으므로 트리가 아무리 커져도 캐시가 쓰는 힙 메모리는 frames * pageSize 로 일정하다.
+ *
+ * 트리는 페이지를 쓰기 전에 {@link #pin(int)} 으로 고정하고, 다 쓰면 {@link #unpin(int, boolean)} 으로 풀면서 수정 여부를 알린다.
+ * 고정된 프레임은 쫓겨나지 않는다. 빈 프레임이 없으면 CLOCK 알고리즘으로 희생 프레임을 고르는데,
+ * 최근에 참조된 프레임은 참조 비트만 지우고 한 바퀴 더 기회를 주므로 자주 쓰는 상위 레벨 노드가 오래 남는다.
+ * 희생 프레임이 수정된(dirty) 상태면 파일에 먼저 써 준다(write-back).
+ */
+public class BufferPool {
+    private final PageFile file;
+    private final Frame[] frames;
+    private final Map<Integer, Frame> table;
+    private int hand;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long writeBacks;
+
+    public BufferPool(PageFile file, int capacity) {
+        if (capacity < 8) {
+            throw new IllegalArgumentException("capacity must be at least 8 frames: " + capacity);
+        }
+        this.file = file;
+        this.frames = new Frame[capacity];
+        this.table = new HashMap<>(capacity * 2);
+        for (int i = 0; i < capacity; i++) {
+            frames[i] = new Frame(ByteBuffer.allocate(file.pageSize()));
+        }
+    }
+
+    public ByteBuffer pin(int pageId) {
+        Frame frame = table.get(pageId);
+        if (frame != null) {
+            hits++;
+        } else {
+            misses++;
+            frame = victim();
+            if (frame.pageId != PageFile.NO_PAGE) {
+                evictions++;
+                if (frame.dirty) writeBack(frame);
+                table.remove(frame.pageId);
+            }
+            frame.pageId = pageId;
+            frame.dirty = false;
+            frame.data.put(0, file.page(pageId), 0, file.pageSize());
+            table.put(pageId, frame);
+        }
+        frame.pinCount++;
+        frame.referenced = true;
+        return frame.data;
+    }
+
+    public void unpin(int pageId, boolean dirty) {
+        Frame frame = table.get(pageId);
+        if (frame == null || frame.pinCount == 0) {
+            throw new IllegalStateException("page is not pinned: " + pageId);
+        }
+        frame.pinCount--;
+        frame.dirty |= dirty;
+    }
+
+    /** 새 페이지를 할당한다. 반환된 페이지는 고정되어 있지 않다. */
+    public int allocate() {
+        return file.allocate();
+    }
+
+    /** 페이지를 해제한다. 캐시에 있던 내용은 쓰지 않고 버린다. */
+    public void free(int pageId) {
+        Frame frame = table.remove(pageId);
+        if (frame != null) {
+            if (frame.pinCount > 0) {
+                throw new IllegalStateException("cannot free a pinned page: " + pageId);
+            }
+            frame.pageId = PageFile.NO_PAGE;
+            frame.dirty = false;
+            frame.referenced = false;
+        }
+        file.free(pageId);
+    }
+
+    /** 수정된 프레임을 모두 파일에 쓰고 디스크까지 동기화한다. */
+    public void flush() throws IOException {
+        for (Frame frame : frames) {
+            if (frame.pageId != PageFile.NO_PAGE && frame.dirty) writeBack(frame);
+        }
+        file.sync();
+    }
+
+    public int capacity() {
+        return frames.length;
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    public long misses() {
+        return misses;
+    }
+
+    public long evictions() {
+        return evictions;
+    }
+
+    public long writeBacks() {
+        return writeBacks;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BufferPool[frames=%d, hits=%d, misses=%d, evictions=%d, writeBacks=%d]",
+                frames.length, hits, misses, evictions, writeBacks);
+    }
+
+    // 고정되지 않은 프레임 중 참조 비트가 꺼진 첫 프레임을 고른다. 두 바퀴를 돌아도 없으면 전부 고정된 것이다.
+    private Frame victim() {
+        for (int step = 0; step < frames.length * 2; step++) {
+            Frame frame = frames[hand];
+            hand = (hand + 1) % frames.length;
+            if (frame.pinCount > 0) continue;
+            if (frame.pageId == PageFile.NO_PAGE || !frame.referenced) return frame;
+            frame.referenced = false;
+        }
+        throw new IllegalStateException("all " + frames.length + " frames are pinned");
+    }
+
+    private void writeBack(Frame frame) {
+        file.writablePage(frame.pageId).put(0, frame.data, 0, file.pageSize());
+        frame.dirty = false;
+        writeBacks++;
+    }
+
+    private static class Frame {
+        final ByteBuffer data;
+        int pageId = PageFile.NO_PAGE;
+        int pinCount;
+        boolean dirty;
+        boolean referenced;
+
+        Frame(ByteBuffer data) {
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package DataStructure.NonLinear.BTree;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * byte[] 키 전용 B-Tree. 키를 부호 없는 바이트의 사전순(memcmp 순서)으로 비교한다.
+ *
+ * 정수, 문자열, 복합 키를 {@link ByteKeys} 로 순서를 보존하는 바이트열로 정규화해 두면
+ * 타입과 상관없이 비교가 바이트 비교 하나로 끝난다. Comparator 체인을 타고 필드마다 분기하지 않아도 된다.
+ * 트리는 키 배열을 복사하지 않으므로 넣은 뒤에 키를 고치면 안 된다.
+ */
+public class ByteKeyBTree<V> extends KeyedBTree<byte[][], V> {
+
+    public ByteKeyBTree(int degrees) {
+        super(degrees);
+    }
+
+    public V search(byte[] key) {
+        Node<byte[][], V> current = root;
+        while (current != null) {
+            int idx = indexOf(current, key);
+            if (idx >= 0) {
+                return current.values[idx];
+            }
+            if (current.isLeaf) {
+                return null;
+            }
+            current = current.children[-(idx + 1)];
+        }
+        return null;
+    }
+
+    /** 이미 있는 키면 무시한다. (BTree 와 같다) */
+    public void insert(byte[] key, V value) {
+        if (key == null) {
+            throw new NullPointerException("key");
+        }
+        Node<byte[][], V> current = rootForInsert();
+        int depth = 0;
+        while (true) {
+            int idx = indexOf(current, key);
+            if (idx >= 0) return;
+            idx = -(idx + 1);
+            if (current.isLeaf) {
+                openSlot(current, idx);
+                current.keys[idx] = key;
+                insertAt(current, depth, idx, value);
+                return;
+            }
+            push(depth++, current, idx);
+            current = current.children[idx];
+        }
+    }
+
+    public void delete(byte[] key) {
+        Node<byte[][], V> current = root;
+        int depth = 0;
+        while (current != null) {
+            int idx = indexOf(current, key);
+            if (idx >= 0) {
+                deleteAt(current, depth, idx);
+                return;
+            }
+            if (current.isLeaf) return;
+            push(depth++, current, -(idx + 1));
+            current = current.children[-(idx + 1)];
+        }
+    }
+
+    /** 키 순서대로 방문한다. */
+    public void forEach(BiConsumer<byte[], ? super V> action) {
+        forEachSlot((keys, idx, value) -> action.accept(keys[idx], value));
+    }
+
+    // 찾으면 위치, 없으면 -(들어갈 위치 + 1).
+    // Arrays.compareUnsigned 는 JIT 이 벡터화된 mismatch 로 바꿔 주므로 앞부분이 같은 긴 키도 여러 바이트씩 비교한다.
+    private int indexOf(Node<byte[][], V> node, byte[] key) {
+        byte[][] keys = node.keys;
+        int lo = 0;
+        int hi = node.size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = Arrays.compareUnsigned(keys[mid], key);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+
+    @Override
+    byte[][] newKeys(int capacity) {
+        return new byte[capacity][];
+    }
+
+    @Override
+    String keyToString(byte[][] keys, int idx) {
+        return ByteKeys.toHex(keys[idx]);
+    }
+}
@@ -0,0 +1,119 @@
+package DataStructure.NonLinear.BTree;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 값을 순서가 보존되는 byte[] 로 바꾸는 인코더. 인코딩한 키끼리 부호 없는 바이트 사전순으로 비교하면
+ * 원래 값의 순서와 같다. ({@link ByteKeyBTree} 의 키로 쓴다)
+ *
+ * <ul>
+ *     <li>int / long : 부호 비트를 뒤집고 big-endian 으로 쓴다. 음수가 양수보다 앞에 온다.</li>
+ *     <li>double : 양수는 부호 비트만, 음수는 모든 비트를 뒤집는다. -0.0 &lt; 0.0 이고 NaN 은 맨 뒤다. (Double.compare 와 같다)</li>
+ *     <li>String : UTF-8. 코드 포인트 순서와 같다. (String.compareTo 는 UTF-16 순서라 보조 문자에서 다를 수 있다)</li>
+ * </ul>
+ *
+ * 여러 필드를 이어 붙인 복합 키는 {@link Builder} 로 만든다. 고정 길이 필드는 그대로 잇고,
+ * 문자열은 0x00 을 0x00 0xFF 로 바꾼 뒤 0x00 0x01 로 끝을 표시한다.
+ * 그래야 "a" 가 "ab" 보다 앞에 오고, 문자열 뒤에 오는 필드가 문자열 비교에 섞이지 않는다.
+ */
+public final class ByteKeys {
+    private ByteKeys() {
+    }
+
+    public static byte[] of(int value) {
+        return builder().addInt(value).build();
+    }
+
+    public static byte[] of(long value) {
+        return builder().addLong(value).build();
+    }
+
+    /** 단독 키로 쓰는 문자열. 뒤에 다른 필드가 오지 않으므로 종료 표시 없이 UTF-8 바이트 그대로다. */
+    public static byte[] of(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static int decodeInt(byte[] key, int offset) {
+        int bits = (key[offset] & 0xFF) << 24 | (key[offset + 1] & 0xFF) << 16
+                | (key[offset + 2] & 0xFF) << 8 | (key[offset + 3] & 0xFF);
+        return bits ^ Integer.MIN_VALUE;
+    }
+
+    public static long decodeLong(byte[] key, int offset) {
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = bits << 8 | (key[offset + i] & 0xFF);
+        }
+        return bits ^ Long.MIN_VALUE;
+    }
+
+    public static String toHex(byte[] key) {
+        StringBuilder sb = new StringBuilder(key.length * 2);
+        for (byte b : key) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    public static final class Builder {
+        private byte[] buffer = new byte[16];
+        private int length;
+
+        private Builder() {
+        }
+
+        public Builder addInt(int value) {
+            int bits = value ^ Integer.MIN_VALUE;
+            ensure(4);
+            buffer[length++] = (byte) (bits >>> 24);
+            buffer[length++] = (byte) (bits >>> 16);
+            buffer[length++] = (byte) (bits >>> 8);
+            buffer[length++] = (byte) bits;
+            return this;
+        }
+
+        public Builder addLong(long value) {
+            long bits = value ^ Long.MIN_VALUE;
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[length++] = (byte) (bits >>> shift);
+            }
+            return this;
+        }
+
+        public Builder addDouble(double value) {
+            long bits = Double.doubleToLongBits(value);
+            // 음수는 크기가 클수록 작아야 하므로 전부 뒤집고, 양수는 부호 비트만 세워 음수 뒤로 보낸다.
+            // addLong 이 부호 비트를 한 번 더 뒤집으므로 여기서는 그만큼 미리 되돌려 둔다.
+            bits = bits < 0 ? ~bits : bits | Long.MIN_VALUE;
+            return addLong(bits ^ Long.MIN_VALUE);
+        }
+
+        public Builder addString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            ensure(utf8.length * 2 + 2);
+            for (byte b : utf8) {
+                buffer[length++] = b;
+                if (b == 0) buffer[length++] = (byte) 0xFF;
+            }
+            buffer[length++] = 0;
+            buffer[length++] = 1;
+            return this;
+        }
+
+        public byte[] build() {
+            return Arrays.copyOf(buffer, length);
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package DataStructure.NonLinear.BTree;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 여러 스레드가 동시에 쓸 수 있는 B+Tree. 낙관적 잠금 결합(Optimistic Lock Coupling)을 쓴다.
+ *
+ * 노드마다 version 하나를 두고, 최하위 비트를 잠금 비트로 쓴다. (홀수 = 쓰기 잠금 중)
+ * <ul>
+ *     <li>읽기: version 을 읽고(잠겨 있으면 처음부터 다시) 노드를 읽은 뒤, version 이 그대로인지 확인한다.
+ *     읽는 쪽은 아무것도 쓰지 않으므로 캐시 라인을 두고 스레드끼리 다투지 않는다.</li>
+ *     <li>내려가기: 자식 포인터를 읽고, 자식의 version 을 읽은 다음에 부모의 version 을 확인한다.
+ *     그래서 자식에 도착한 순간 그 자식이 여전히 올바른 자식이었음이 보장된다.</li>
+ *     <li>쓰기: 읽을 때 본 version 으로 CAS 해서 쓰기 잠금으로 올린다. 그 사이에 누가 고쳤으면 CAS 가 실패하고 처음부터 다시 내려간다.</li>
+ * </ul>
+ *
+ * insert 는 내려가다 꽉 찬 노드를 만나면 부모와 그 노드만 잠그고 바로 분할한 뒤 처음부터 다시 내려간다(eager split).
+ * 부모는 이미 꽉 차 있지 않음을 확인하고 지나온 노드이므로 분할이 위로 번지지 않고, 한 번에 잠그는 노드는 많아야 두 개다.
+ * 분할이 없으면 리프 하나만 잠근다.
+ *
+ * delete 는 리프에서 키를 지우기만 하고 병합하지 않는다. 리프가 비어도 구분 키가 그대로 길을 안내하므로 검색은 올바르다.
+ * 노드가 사라지지 않으니 낙관적으로 읽던 노드가 해제되는 경우를 따로 다룰 필요가 없다. 대신 삭제가 많으면 빈 리프가 남는다.
+ *
+ * search / insert / delete 는 linearizable 하다. 쓰기는 리프의 쓰기 잠금을 잡은 시점, 읽기는 리프의 마지막 version 확인 시점에 일어난 것으로 볼 수 있다.
+ */
+public class ConcurrentBTree {
+    private static final VarHandle VERSION;
+
+    static {
+        try {
+            VERSION = MethodHandles.lookup().findVarHandle(Node.class, "version", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int degrees;
+    private final int maxKeys;
+    private volatile Node root;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder restarts = new LongAdder();
+
+    public ConcurrentBTree(int degrees) {
+        // 내부 노드를 미리 분할할 때 양쪽에 키가 하나 이상 남으려면 키가 3개 이상이어야 한다
+        if (degrees < 4) {
+            throw new IllegalArgumentException("degrees must be at least 4: " + degrees);
+        }
+        this.degrees = degrees;
+        this.maxKeys = degrees - 1;
+        this.root = new Node(true);
+    }
+
+    /** 동시에 변경 중이면 근사값이다. */
+    public long size() {
+        return count.sum();
+    }
+
+    /** 다른 스레드와 부딪혀 처음부터 다시 내려간 횟수. */
+    public long restarts() {
+        return restarts.sum();
+    }
+
+    public String search(int key) {
+        restart:
+        for (int attempt = 0; ; attempt++) {
+            if (attempt > 0) backoff(attempt);
+
+            Node node = root;
+            long version = readLock(node);
+            if (version < 0 || node != root) continue;
+
+            while (!node.isLeaf) {
+                Node child = node.children[childSlot(node, key)];
+                if (child == null) continue restart;
+                long childVersion = readLock(child);
+                if (childVersion < 0 || !validate(node, version)) continue restart;
+                node = child;
+                version = childVersion;
+            }
+
+            int idx = Arrays.binarySearch(node.keys, 0, node.size, key);
+            String value = idx >= 0 ? node.values[idx] : null;
+            if (!validate(node, version)) continue;
+            return value;
+        }
+    }
+
+    /** 이미 있는 키면 무시한다. (BTree 와 같다) */
+    public void insert(int key, String value) {
+        restart:
+        for (int attempt = 0; ; attempt++) {
+            if (attempt > 0) backoff(attempt);
+
+            Node node = root;
+            long version = readLock(node);
+            if (version < 0 || node != root) continue;
+            Node parent = null;
+            long parentVersion = 0;
+
+            while (true) {
+                if (node.size == maxKeys) {
+                    // 부모 -> 노드 순서로 잠근다. 둘 다 읽을 때 본 그대로여야 잠금에 성공한다.
+                    if (parent != null && !tryUpgrade(parent, parentVersion)) continue restart;
+                    if (!tryUpgrade(node, version)) {
+                        if (parent != null) unlock(parent);
+                        continue restart;
+                    }
+                    if (parent == null && node != root) {
+                        unlock(node);
+                        continue restart;
+                    }
+                    split(node, parent);
+                    unlock(node);
+                    if (parent != null) unlock(parent);
+                    continue restart;
+                }
+                if (node.isLeaf) break;
+
+                Node child = node.children[childSlot(node, key)];
+                if (child == null) continue restart;
+                long childVersion = readLock(child);
+                if (childVersion < 0 || !validate(node, version)) continue restart;
+                parent = node;
+                parentVersion = version;
+                node = child;
+                version = childVersion;
+            }
+
+            if (!tryUpgrade(node, version)) continue;
+            int idx = Arrays.binarySearch(node.keys, 0, node.size, key);
+            if (idx < 0) {
+                idx = -(idx + 1);
+                System.arraycopy(node.keys, idx, node.keys, idx + 1, node.size - idx);
+                System.arraycopy(node.values, idx, node.values, idx + 1, node.size - idx);
+                node.keys[idx] = key;
+                node.values[idx] = value;
+                node.size++;
+                count.increment();
+            }
+            unlock(node);
+            return;
+        }
+    }
+
+    public void delete(int key) {
+        restart:
+        for (int attempt = 0; ; attempt++) {
+            if (attempt > 0) backoff(attempt);
+
+            Node node = root;
+            long version = readLock(node);
+            if (version < 0 || node != root) continue;
+
+            while (!node.isLeaf) {
+                Node child = node.children[childSlot(node, key)];
+                if (child == null) continue restart;
+                long childVersion = readLock(child);
+                if (childVersion < 0 || !validate(node, version)) continue restart;
+                node = child;
+                version = childVersion;
+            }
+
+            if (!tryUpgrade(node, version)) continue;
+            int idx = Arrays.binarySearch(node.keys, 0, node.size, key);
+            if (idx >= 0) {
+                System.arraycopy(node.keys, idx + 1, node.keys, idx, node.size - idx - 1);
+                System.arraycopy(node.values, idx + 1, node.values, idx, node.size - idx - 1);
+                node.size--;
+                node.values[node.size] = null;
+                count.decrement();
+            }
+            unlock(node);
+            return;
+        }
+    }
+
+    /**
+     * 꽉 찬 node 를 반으로 나누고 오른쪽 절반을 parent 에 붙인다. parent 가 null 이면 새 루트를 만든다.
+     * 호출하는 쪽이 node 와 parent 의 쓰기 잠금을 잡고 있어야 한다.
+     */
+    private void split(Node node, Node parent) {
+        Node right = new Node(node.isLeaf);
+        int mid = node.size / 2;
+        int separator;
+        if (node.isLeaf) {
+            // 리프는 오른쪽 첫 키를 복사해서 올린다
+            right.size = node.size - mid;
+            System.arraycopy(node.keys, mid, right.keys, 0, right.size);
+            System.arraycopy(node.values, mid, right.values, 0, right.size);
+            Arrays.fill(node.values, mid, node.size, null);
+            separator = right.keys[0];
+        } else {
+            // 내부 노드는 가운데 키를 올리고 자기는 갖지 않는다
+            separator = node.keys[mid];
+            right.size = node.size - mid - 1;
+            System.arraycopy(node.keys, mid + 1, right.keys, 0, right.size);
+            System.arraycopy(node.children, mid + 1, right.children, 0, right.size + 1);
+            Arrays.fill(node.children, mid + 1, node.size + 1, null);
+        }
+        node.size = mid;
+
+        if (parent == null) {
+            Node newRoot = new Node(false);
+            newRoot.keys[0] = separator;
+            newRoot.children[0] = node;
+            newRoot.children[1] = right;
+            newRoot.size = 1;
+            root = newRoot;
+            return;
+        }
+
+        int slot = childSlot(parent, separator);
+        System.arraycopy(parent.keys, slot, parent.keys, slot + 1, parent.size - slot);
+        System.arraycopy(parent.children, slot + 1, parent.children, slot + 2, parent.size - slot);
+        parent.keys[slot] = separator;
+        parent.children[slot + 1] = right;
+        parent.size++;
+    }
+
+    // key 가 내려갈 자식 번호. 구분 키와 같으면 오른쪽으로 간다.
+    // 잠그지 않고 읽는 중이면 keys 가 정렬돼 있지 않을 수도 있지만, 결과는 항상 [0, size] 안이고 나중에 version 확인에서 걸러진다.
+    private static int childSlot(Node node, int key) {
+        int idx = Arrays.binarySearch(node.keys, 0, node.size, key);
+        return idx >= 0 ? idx + 1 : -(idx + 1);
+    }
+
+    // 잠겨 있으면 -1
+    private static long readLock(Node node) {
+        long version = node.version;
+        return (version & 1) == 0 ? version : -1;
+    }
+
+    // 지금까지 읽은 내용이 version 을 읽은 뒤 바뀌지 않았는지 확인한다.
+    // 앞선 일반 읽기가 version 읽기 뒤로 밀리지 않도록 acquire 펜스를 먼저 친다. (StampedLock.validate 와 같은 방식)
+    private static boolean validate(Node node, long version) {
+        VarHandle.acquireFence();
+        return node.version == version;
+    }
+
+    private static boolean tryUpgrade(Node node, long version) {
+        return VERSION.compareAndSet(node, version, version + 1);
+    }
+
+    private static void unlock(Node node) {
+        node.version = node.version + 1;
+    }
+
+    // 잠금을 쥔 스레드가 선점당했을 수 있으므로 몇 번 실패하면 CPU 를 양보한다
+    private void backoff(int attempt) {
+        restarts.increment();
+        if (attempt < 8) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+
+    /** 디버깅용. 다른 스레드가 쓰는 중에는 호출하지 않는다. */
+    public void print() {
+        System.out.println();
+        printTree(root, 0);
+        System.out.println();
+    }
+
+    private void printTree(Node node, int level) {
+        System.out.print("Level " + level + (node.isLeaf ? " leaf [" : " ["));
+        for (int i = 0; i < node.size; i++) {
+            System.out.print(node.keys[i] + " ");
+        }
+        System.out.println("]");
+        if (!node.isLeaf) {
+            for (int i = 0; i <= node.size; i++) {
+                printTree(node.children[i], level + 1);
+            }
+        }
+    }
+
+    /**
+     * 내려가는 길에 꽉 찬 노드를 미리 나누므로 키는 maxKeys 개를 넘지 않는다. 그래서 배열도 BTree 와 달리 한 칸 여유를 두지 않는다.
+     * 배열은 final 이라 다른 스레드가 새 노드를 낙관적으로 읽어도 null 배열을 보는 일은 없다.
+     */
+    private class Node {
+        final int[] keys;
+        final String[] values;
+        final Node[] children;
+        final boolean isLeaf;
+        int size;
+        volatile long version;
+
+        Node(boolean isLeaf) {
+            this.keys = new int[maxKeys];
+            this.values = isLeaf ? new String[maxKeys] : null;
+            this.children = isLeaf ? null : new Node[degrees];
+            this.isLeaf = isLeaf;
+        }
+    }
+
+    /**
+     * 전역 잠금으로 감싼 BTree 와 ConcurrentBTree 의 읽기 처리량을 스레드 수를 늘려 가며 비교하고,
+     * 여러 스레드가 insert/delete 를 섞어 한 뒤 결과가 맞는지 확인한다.
+     */
+    public static void main(String[] args) throws Exception {
+        int keys = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(4, Runtime.getRuntime().availableProcessors());
+        long millis = 1000;
+
+        BTree locked = new BTree(64);
+        ConcurrentBTree concurrent = new ConcurrentBTree(64);
+        for (int i = 0; i < keys; i++) {
+            locked.insert(i, "addr-" + i);
+            concurrent.insert(i, "addr-" + i);
+        }
+
+        System.out.println("available processors = " + Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %18s %18s%n", "threads", "global lock ops/s", "OLC ops/s");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double globalLock = readThroughput(threads, millis, keys, key -> {
+                synchronized (locked) {
+                    return locked.search(key);
+                }
+            });
+            double optimistic = readThroughput(threads, millis, keys, concurrent::search);
+            System.out.printf("%-8d %,18.0f %,18.0f%n", threads, globalLock, optimistic);
+        }
+
+        // 스레드마다 자기 구간을 넣고 짝수 키만 지운다. 구간이 같은 리프를 공유하므로 분할과 잠금이 서로 부딪힌다.
+        ConcurrentBTree mixed = new ConcurrentBTree(8);
+        int perThread = 50_000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < maxThreads; t++) {
+            int offset = t;
+            int threadCount = maxThreads;
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    int key = i * threadCount + offset;
+                    mixed.insert(key, "addr-" + key);
+                }
+                for (int i = 0; i < perThread; i += 2) {
+                    mixed.delete(i * threadCount + offset);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        int wrong = 0;
+        for (int key = 0; key < perThread * maxThreads; key++) {
+            String expected = (key / maxThreads) % 2 == 0 ? null : "addr-" + key;
+            String actual = mixed.search(key);
+            if (expected == null ? actual != null : !expected.equals(actual)) wrong++;
+        }
+        System.out.printf("mixed insert/delete: threads=%d size=%d wrong=%d restarts=%d%n",
+                maxThreads, mixed.size(), wrong, mixed.restarts());
+    }
+
+    private interface Lookup {
+        String search(int key);
+    }
+
+    private static double readThroughput(int threads, long millis, int keys, Lookup lookup) throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread reader = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long done = 0;
+                while ((done & 1023) != 0 || System.nanoTime() < deadline) {
+                    if (lookup.search(random.nextInt(keys)) == null) {
+                        throw new IllegalStateException("missing key");
+                    }
+                    done++;
+                }
+                ops.add(done);
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        return ops.sum() * 1000.0 / millis;
+    }
+}
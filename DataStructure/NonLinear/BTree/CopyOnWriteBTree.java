@@ -0,0 +1,401 @@
+package DataStructure.NonLinear.BTree;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 노드를 절대 고치지 않는 B-Tree. 쓰기는 루트에서 바뀐 리프까지의 경로(와 분할/회전/병합에 걸린 형제)만 새로 만들고
+ * 나머지 노드는 이전 버전과 공유한다(path copying). 완성된 새 루트를 {@link Snapshot} 으로 감싸 한 번에 교체한다.
+ *
+ * <ul>
+ *     <li>읽기: {@link #snapshot()} 으로 그 순간의 버전을 잡으면 이후 쓰기와 상관없이 같은 내용을 잠금 없이 읽는다.
+ *     긴 구간 스캔도 중간에 바뀐 상태를 보지 않는다.</li>
+ *     <li>쓰기: 쓰기끼리는 잠금으로 한 줄로 세운다. 읽기를 기다리지 않는다.</li>
+ *     <li>회수: 옛 버전의 노드는 그 버전을 잡고 있는 Snapshot 이 모두 사라지면 GC 가 회수한다. 따로 참조를 셀 필요가 없다.</li>
+ * </ul>
+ *
+ * 최소/최대 키 수와 분할/회전/병합 규칙은 BTree 와 같다. 노드는 키 수에 딱 맞는 배열을 갖고 부모 포인터가 없다.
+ */
+public class CopyOnWriteBTree {
+    private final int minKeys;
+    private final int maxKeys;
+    private final AtomicReference<Snapshot> current;
+
+    // 분할 결과를 부모 호출로 넘기는 자리. 쓰기 잠금 안에서만 쓴다.
+    private int splitKey;
+    private String splitValue;
+    private Node splitRight;
+
+    public CopyOnWriteBTree(int degrees) {
+        if (degrees < 3) {
+            throw new IllegalArgumentException("degrees must be at least 3: " + degrees);
+        }
+        this.maxKeys = degrees - 1;
+        this.minKeys = (degrees - 1) / 2;
+        this.current = new AtomicReference<>(new Snapshot(null, 0, 0));
+    }
+
+    /** 지금 버전을 돌려준다. 돌려받은 Snapshot 은 이후 쓰기에 영향을 받지 않는다. */
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    public String search(int key) {
+        return current.get().search(key);
+    }
+
+    public int size() {
+        return current.get().size();
+    }
+
+    /** 이미 있는 키면 무시한다. (BTree 와 같다) */
+    public synchronized void insert(int key, String address) {
+        Snapshot snapshot = current.get();
+        Node root = snapshot.root;
+        if (root == null) {
+            publish(snapshot, new Node(new int[]{key}, new String[]{address}, null), 1);
+            return;
+        }
+
+        Node updated = insert(root, key, address);
+        if (updated == root) return;
+        if (splitRight != null) {
+            updated = new Node(new int[]{splitKey}, new String[]{splitValue}, new Node[]{updated, splitRight});
+            clearSplit();
+        }
+        publish(snapshot, updated, snapshot.size + 1);
+    }
+
+    public synchronized void delete(int key) {
+        Snapshot snapshot = current.get();
+        Node root = snapshot.root;
+        if (root == null) return;
+
+        Node updated = delete(root, key);
+        if (updated == root) return;
+        if (updated.size() == 0) {
+            updated = updated.isLeaf() ? null : updated.children[0];
+        }
+        publish(snapshot, updated, snapshot.size - 1);
+    }
+
+    private void publish(Snapshot previous, Node root, int size) {
+        current.set(new Snapshot(root, size, previous.version + 1));
+    }
+
+    // node 를 대신할 새 노드를 돌려준다. 키가 이미 있으면 node 를 그대로 돌려준다.
+    // 새 노드가 넘치면 나눈 왼쪽을 돌려주고 구분 키와 오른쪽은 split* 에 남긴다.
+    private Node insert(Node node, int key, String address) {
+        int idx = Arrays.binarySearch(node.keys, key);
+        if (idx >= 0) return node;
+        idx = -(idx + 1);
+
+        Node updated;
+        if (node.isLeaf()) {
+            updated = node.withEntry(idx, key, address, null);
+        } else {
+            Node child = node.children[idx];
+            Node newChild = insert(child, key, address);
+            if (newChild == child) return node;
+            if (splitRight == null) {
+                updated = node.withChild(idx, newChild);
+            } else {
+                Node right = splitRight;
+                int separator = splitKey;
+                String separatorValue = splitValue;
+                clearSplit();
+                updated = node.withChild(idx, newChild).withEntry(idx, separator, separatorValue, right);
+            }
+        }
+        return updated.size() > maxKeys ? split(updated) : updated;
+    }
+
+    private Node split(Node node) {
+        int mid = node.size() / 2;
+        splitKey = node.keys[mid];
+        splitValue = node.values[mid];
+        splitRight = node.slice(mid + 1, node.size());
+        return node.slice(0, mid);
+    }
+
+    private void clearSplit() {
+        splitValue = null;
+        splitRight = null;
+    }
+
+    // node 를 대신할 새 노드를 돌려준다. 키가 없으면 node 를 그대로 돌려준다. 돌려준 노드는 minKeys 보다 작을 수 있고 부모가 보정한다.
+    private Node delete(Node node, int key) {
+        int idx = Arrays.binarySearch(node.keys, key);
+        if (node.isLeaf()) {
+            return idx >= 0 ? node.withoutEntry(idx, false) : node;
+        }
+
+        Node updated;
+        int slot;
+        if (idx >= 0) {     // predecessor 로 바꾸고 왼쪽 자식에서 predecessor 를 지운다
+            Node pre = node.children[idx];
+            while (!pre.isLeaf()) {
+                pre = pre.children[pre.size()];
+            }
+            int preKey = pre.keys[pre.size() - 1];
+            String preValue = pre.values[pre.size() - 1];
+            updated = node.withChild(idx, delete(node.children[idx], preKey)).withKey(idx, preKey, preValue);
+            slot = idx;
+        } else {
+            slot = -(idx + 1);
+            Node child = node.children[slot];
+            Node newChild = delete(child, key);
+            if (newChild == child) return node;
+            updated = node.withChild(slot, newChild);
+        }
+        return updated.children[slot].size() < minKeys ? rebalance(updated, slot) : updated;
+    }
+
+    // parent.children[slot] 이 minKeys 보다 작아졌다. 형제에게 빌리거나 합친 새 parent 를 돌려준다.
+    private Node rebalance(Node parent, int slot) {
+        Node child = parent.children[slot];
+        Node prev = slot > 0 ? parent.children[slot - 1] : null;
+        Node next = slot < parent.size() ? parent.children[slot + 1] : null;
+
+        if (prev != null && prev.size() > minKeys) {
+            // 부모의 구분 키를 child 맨 앞으로 내리고 prev 의 마지막 키를 부모로 올린다
+            int last = prev.size() - 1;
+            Node movedChild = prev.isLeaf() ? null : prev.children[last + 1];
+            Node newChild = child.withFirstEntry(parent.keys[slot - 1], parent.values[slot - 1], movedChild);
+            Node newPrev = prev.withoutEntry(last, false);
+            return parent.withChild(slot - 1, newPrev).withChild(slot, newChild)
+                    .withKey(slot - 1, prev.keys[last], prev.values[last]);
+        }
+        if (next != null && next.size() > minKeys) {
+            Node movedChild = next.isLeaf() ? null : next.children[0];
+            Node newChild = child.withEntry(child.size(), parent.keys[slot], parent.values[slot], movedChild);
+            Node newNext = next.withoutEntry(0, true);
+            return parent.withChild(slot, newChild).withChild(slot + 1, newNext)
+                    .withKey(slot, next.keys[0], next.values[0]);
+        }
+
+        int left = prev != null ? slot - 1 : slot;
+        Node merged = parent.children[left].mergedWith(parent.keys[left], parent.values[left], parent.children[left + 1]);
+        return parent.withoutEntry(left, false).withChild(left, merged);
+    }
+
+    /**
+     * 한 버전의 트리. 만들어진 뒤에는 바뀌지 않으므로 여러 스레드가 잠금 없이 읽어도 된다.
+     */
+    public static final class Snapshot {
+        private final Node root;
+        private final int size;
+        private final long version;
+
+        private Snapshot(Node root, int size, long version) {
+            this.root = root;
+            this.size = size;
+            this.version = version;
+        }
+
+        public String search(int key) {
+            Node node = root;
+            while (node != null) {
+                int idx = Arrays.binarySearch(node.keys, key);
+                if (idx >= 0) return node.values[idx];
+                if (node.isLeaf()) return null;
+                node = node.children[-(idx + 1)];
+            }
+            return null;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /** 쓰기가 한 번 일어날 때마다 1 씩 는다. */
+        public long version() {
+            return version;
+        }
+
+        /** [from, to] 구간의 키를 순서대로 방문한다. */
+        public void scan(int from, int to, EntryConsumer action) {
+            scan(root, from, to, action);
+        }
+
+        private static void scan(Node node, int from, int to, EntryConsumer action) {
+            if (node == null) return;
+            int idx = Arrays.binarySearch(node.keys, from);
+            int start = idx >= 0 ? idx : -(idx + 1);
+            for (int i = start; i < node.size(); i++) {
+                if (!node.isLeaf()) scan(node.children[i], from, to, action);
+                if (node.keys[i] > to) return;
+                action.accept(node.keys[i], node.values[i]);
+            }
+            if (!node.isLeaf()) scan(node.children[node.size()], from, to, action);
+        }
+    }
+
+    public interface EntryConsumer {
+        void accept(int key, String address);
+    }
+
+    /**
+     * 바뀌지 않는 노드. 키 수가 곧 배열 길이이고, 고칠 때마다 with* 메서드로 새 노드를 만든다.
+     * 배열은 생성자에 넘기기 전에 다 채우므로 final 필드를 통해 다른 스레드에도 완성된 상태로 보인다.
+     */
+    private static final class Node {
+        final int[] keys;
+        final String[] values;
+        final Node[] children;    // 리프는 null
+
+        Node(int[] keys, String[] values, Node[] children) {
+            this.keys = keys;
+            this.values = values;
+            this.children = children;
+        }
+
+        int size() {
+            return keys.length;
+        }
+
+        boolean isLeaf() {
+            return children == null;
+        }
+
+        Node withKey(int idx, int key, String value) {
+            int[] newKeys = keys.clone();
+            String[] newValues = values.clone();
+            newKeys[idx] = key;
+            newValues[idx] = value;
+            return new Node(newKeys, newValues, children);
+        }
+
+        Node withChild(int idx, Node child) {
+            Node[] newChildren = children.clone();
+            newChildren[idx] = child;
+            return new Node(keys, values, newChildren);
+        }
+
+        /** idx 에 키를 넣는다. 내부 노드면 rightChild 가 새 키의 오른쪽 자식이 된다. */
+        Node withEntry(int idx, int key, String value, Node rightChild) {
+            int n = size();
+            int[] newKeys = new int[n + 1];
+            String[] newValues = new String[n + 1];
+            System.arraycopy(keys, 0, newKeys, 0, idx);
+            System.arraycopy(values, 0, newValues, 0, idx);
+            newKeys[idx] = key;
+            newValues[idx] = value;
+            System.arraycopy(keys, idx, newKeys, idx + 1, n - idx);
+            System.arraycopy(values, idx, newValues, idx + 1, n - idx);
+            Node[] newChildren = null;
+            if (children != null) {
+                newChildren = new Node[n + 2];
+                System.arraycopy(children, 0, newChildren, 0, idx + 1);
+                newChildren[idx + 1] = rightChild;
+                System.arraycopy(children, idx + 1, newChildren, idx + 2, n - idx);
+            }
+            return new Node(newKeys, newValues, newChildren);
+        }
+
+        /** 맨 앞에 키를 넣는다. 내부 노드면 leftChild 가 새 맨 왼쪽 자식이 된다. */
+        Node withFirstEntry(int key, String value, Node leftChild) {
+            Node shifted = withEntry(0, key, value, null);
+            if (children != null) {
+                System.arraycopy(shifted.children, 0, shifted.children, 1, 1);
+                shifted.children[0] = leftChild;
+            }
+            return shifted;
+        }
+
+        /** idx 의 키를 뺀다. 내부 노드면 leftChild 가 true 일 때 왼쪽 자식을, 아니면 오른쪽 자식을 함께 뺀다. */
+        Node withoutEntry(int idx, boolean leftChild) {
+            int n = size();
+            int[] newKeys = new int[n - 1];
+            String[] newValues = new String[n - 1];
+            System.arraycopy(keys, 0, newKeys, 0, idx);
+            System.arraycopy(values, 0, newValues, 0, idx);
+            System.arraycopy(keys, idx + 1, newKeys, idx, n - idx - 1);
+            System.arraycopy(values, idx + 1, newValues, idx, n - idx - 1);
+            Node[] newChildren = null;
+            if (children != null) {
+                int removed = leftChild ? idx : idx + 1;
+                newChildren = new Node[n];
+                System.arraycopy(children, 0, newChildren, 0, removed);
+                System.arraycopy(children, removed + 1, newChildren, removed, n - removed);
+            }
+            return new Node(newKeys, newValues, newChildren);
+        }
+
+        /** keys[from, to) 와 그 사이 자식들로 새 노드를 만든다. */
+        Node slice(int from, int to) {
+            return new Node(Arrays.copyOfRange(keys, from, to), Arrays.copyOfRange(values, from, to),
+                    children == null ? null : Arrays.copyOfRange(children, from, to + 1));
+        }
+
+        /** this + 구분 키 + right 를 이어 붙인다. */
+        Node mergedWith(int key, String value, Node right) {
+            int n = size();
+            int m = right.size();
+            int[] newKeys = Arrays.copyOf(keys, n + 1 + m);
+            String[] newValues = Arrays.copyOf(values, n + 1 + m);
+            newKeys[n] = key;
+            newValues[n] = value;
+            System.arraycopy(right.keys, 0, newKeys, n + 1, m);
+            System.arraycopy(right.values, 0, newValues, n + 1, m);
+            Node[] newChildren = null;
+            if (children != null) {
+                newChildren = Arrays.copyOf(children, n + m + 2);
+                System.arraycopy(right.children, 0, newChildren, n + 1, m + 1);
+            }
+            return new Node(newKeys, newValues, newChildren);
+        }
+    }
+
+    /**
+     * 쓰는 스레드가 insert/delete 를 계속하는 동안 읽는 스레드가 스냅샷을 잡고 전체를 스캔한다.
+     * 스캔 도중 쓰기가 일어나도 한 스냅샷 안에서 센 키 수는 항상 그 스냅샷의 size 와 같아야 한다.
+     */
+    public static void main(String[] args) throws Exception {
+        int keys = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        CopyOnWriteBTree tree = new CopyOnWriteBTree(32);
+        for (int i = 0; i < keys; i++) {
+            tree.insert(i, "addr-" + i);
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        long[] writes = new long[1];
+        Thread writer = new Thread(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (running.get()) {
+                int key = random.nextInt(keys * 2);
+                if (random.nextBoolean()) {
+                    tree.insert(key, "addr-" + key);
+                } else {
+                    tree.delete(key);
+                }
+                writes[0]++;
+            }
+        });
+        writer.start();
+
+        int scans = 0;
+        long deadline = System.nanoTime() + 2_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            Snapshot snapshot = tree.snapshot();
+            int[] counted = new int[1];
+            int[] last = {Integer.MIN_VALUE};
+            snapshot.scan(Integer.MIN_VALUE, Integer.MAX_VALUE, (key, address) -> {
+                if (key <= last[0]) throw new IllegalStateException("out of order: " + last[0] + " -> " + key);
+                last[0] = key;
+                counted[0]++;
+            });
+            if (counted[0] != snapshot.size()) {
+                throw new IllegalStateException("torn snapshot: counted " + counted[0] + ", size " + snapshot.size());
+            }
+            scans++;
+        }
+        running.set(false);
+        writer.join();
+
+        System.out.printf("full scans=%d, concurrent writes=%,d, final version=%d, size=%d%n",
+                scans, writes[0], tree.snapshot().version(), tree.size());
+    }
+}
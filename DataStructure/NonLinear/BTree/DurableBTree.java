@@ -0,0 +1,214 @@
+package DataStructure.NonLinear.BTree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * PagedBTree 에 WAL 과 크래시 복구를 붙인 트리. 디렉터리 하나에 세 파일을 쓴다.
+ * <ul>
+ *     <li>tree.db : 페이지 파일 (PagedBTree)</li>
+ *     <li>tree.wal : 마지막 체크포인트 이후의 insert/delete 레코드 (WriteAheadLog)</li>
+ *     <li>tree.journal : 체크포인트 이후 처음 고친 페이지들의 원본 (RollbackJournal)</li>
+ * </ul>
+ *
+ * 분할/병합 도중 크래시가 나면 페이지 파일은 일부만 고쳐진 상태일 수 있다. 열 때 다음 순서로 복구한다.
+ * <ol>
+ *     <li>저널의 원본 페이지를 되돌려 써서 페이지 파일을 마지막 체크포인트 시점으로 되돌린다.</li>
+ *     <li>메타 페이지의 checkpointLsn 이후 WAL 레코드를 다시 적용한다. 잘린 마지막 레코드는 커밋되지 않은 것이므로 버린다.</li>
+ *     <li>체크포인트를 찍어 복구된 상태를 새 기준점으로 만든다.</li>
+ * </ol>
+ *
+ * 변경은 트리 잠금 안에서 WAL 에 append 한 뒤에 트리에 적용하고, 잠금을 놓고 커밋(fsync)을 기다린다.
+ * 그래서 GROUP 모드에서는 여러 스레드의 변경이 fsync 한 번으로 묶인다.
+ * append 가 실패하면 트리는 건드리지 않으므로 로그에 없는 변경이 search 에 보이지 않는다.
+ * 로그에 쓴 뒤 트리에 적용하다 실패하면 둘이 어긋나므로 이 객체는 실패 상태가 되고, 다시 열어 WAL 로 복구해야 한다.
+ */
+public class DurableBTree implements Closeable {
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 10_000;
+
+    private final PagedBTree tree;
+    private final WriteAheadLog wal;
+    private final RollbackJournal journal;
+    private final int checkpointInterval;
+    private int sinceCheckpoint;
+    private RuntimeException failure;    // WAL 에 쓴 변경을 트리에 적용하지 못했을 때 남는다. 이후 모든 연산이 실패한다.
+
+    private DurableBTree(PagedBTree tree, WriteAheadLog wal, RollbackJournal journal, int checkpointInterval) {
+        this.tree = tree;
+        this.wal = wal;
+        this.journal = journal;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    public static DurableBTree open(Path dir, int degrees, WriteAheadLog.Mode mode) throws IOException {
+        return open(dir, degrees, mode, PagedBTree.DEFAULT_POOL_FRAMES, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /** degrees 는 새로 만들 때만 쓰인다. 기존 디렉터리를 열면 파일에 기록된 차수를 따른다. */
+    public static DurableBTree open(Path dir, int degrees, WriteAheadLog.Mode mode,
+                                    int poolFrames, int checkpointInterval) throws IOException {
+        Files.createDirectories(dir);
+        Path dbPath = dir.resolve("tree.db");
+        Path walPath = dir.resolve("tree.wal");
+        Path journalPath = dir.resolve("tree.journal");
+
+        PagedBTree tree;
+        if (Files.exists(dbPath)) {
+            int pageSize;
+            try (PageFile probe = PageFile.open(dbPath)) {
+                pageSize = probe.pageSize();
+            }
+            RollbackJournal.recover(journalPath, dbPath, pageSize);
+            tree = PagedBTree.open(dbPath, poolFrames);
+        } else {
+            Files.deleteIfExists(walPath);
+            tree = PagedBTree.create(dbPath, degrees, PagedBTree.DEFAULT_VALUE_BYTES, poolFrames);
+            tree.flush();
+        }
+
+        // WAL 을 다시 적용하는 동안 크래시가 나도 되돌릴 수 있도록 저널을 먼저 붙인다
+        RollbackJournal journal = new RollbackJournal(journalPath, tree.file().pageSize(), tree.file().pageCount());
+        tree.file().setJournal(journal);
+
+        long[] replayed = WriteAheadLog.replay(walPath, tree.checkpointLsn(), (type, lsn, key, value) -> {
+            if (type == WriteAheadLog.INSERT) {
+                tree.insert(key, new String(value, StandardCharsets.UTF_8));
+            } else if (type == WriteAheadLog.DELETE) {
+                tree.delete(key);
+            }
+        });
+
+        WriteAheadLog wal = WriteAheadLog.open(walPath, mode, replayed[0], replayed[1]);
+
+        DurableBTree durable = new DurableBTree(tree, wal, journal, checkpointInterval);
+        durable.checkpoint();
+        return durable;
+    }
+
+    public synchronized String search(int key) {
+        checkNotFailed();
+        return tree.search(key);
+    }
+
+    public void insert(int key, String address) throws IOException {
+        long lsn;
+        synchronized (this) {
+            checkNotFailed();
+            byte[] value = tree.encode(address);    // 너무 긴 값은 로그에 남기 전에 거른다
+            lsn = wal.append(WriteAheadLog.INSERT, key, value);
+            try {
+                tree.insert(key, address);
+            } catch (RuntimeException e) {
+                failure = e;
+                throw e;
+            }
+            if (++sinceCheckpoint >= checkpointInterval) checkpoint();
+        }
+        wal.commit(lsn);
+    }
+
+    public void delete(int key) throws IOException {
+        long lsn;
+        synchronized (this) {
+            checkNotFailed();
+            lsn = wal.append(WriteAheadLog.DELETE, key, new byte[0]);
+            try {
+                tree.delete(key);
+            } catch (RuntimeException e) {
+                failure = e;
+                throw e;
+            }
+            if (++sinceCheckpoint >= checkpointInterval) checkpoint();
+        }
+        wal.commit(lsn);
+    }
+
+    private void checkNotFailed() {
+        if (failure != null) {
+            throw new IllegalStateException("tree diverged from the write-ahead log; reopen it to recover", failure);
+        }
+    }
+
+    /**
+     * 지금까지의 변경을 페이지 파일에 반영하고 WAL 과 저널을 비운다.
+     * 순서가 중요하다: WAL 을 먼저 디스크에 내린 뒤 페이지를 쓰고, 페이지 파일이 디스크에 내려간 다음에야 저널을 비운다.
+     */
+    public synchronized void checkpoint() throws IOException {
+        long lsn = wal.lastLsn();
+        wal.commit(lsn);
+        tree.setCheckpointLsn(lsn);
+        tree.flush();
+        journal.reset(tree.file().pageCount());
+        wal.reset();
+        sinceCheckpoint = 0;
+    }
+
+    public long walSyncCount() {
+        return wal.syncCount();
+    }
+
+    public BufferPool pool() {
+        return tree.pool();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        checkpoint();
+        wal.close();
+        journal.close();
+        tree.close();
+    }
+
+    /**
+     * fsync-per-op(SYNC_EACH) 와 group commit(GROUP) 의 처리량 비교.
+     * 여러 스레드가 동시에 insert 할 때 GROUP 모드는 fsync 한 번에 여러 레코드를 묶는다.
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int opsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+        for (WriteAheadLog.Mode mode : WriteAheadLog.Mode.values()) {
+            Path dir = Files.createTempDirectory("durable-btree");
+            DurableBTree tree = DurableBTree.open(dir, 64, mode);
+
+            List<Thread> workers = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                int base = t * opsPerThread;
+                Thread worker = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < opsPerThread; i++) {
+                            tree.insert(base + i, "addr-" + (base + i));
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            long elapsed = System.nanoTime() - start;
+            long ops = (long) threads * opsPerThread;
+
+            System.out.printf("%-9s threads=%d ops=%d  %,.0f ops/s  fsync=%d (%.1f ops/fsync)%n",
+                    mode, threads, ops, ops * 1e9 / elapsed, tree.walSyncCount(), (double) ops / Math.max(1, tree.walSyncCount()));
+            tree.close();
+
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(dir);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package DataStructure.NonLinear.BTree;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.function.BiConsumer;
+
+/**
+ * 키와 값의 타입을 정할 수 있는 B-Tree. 구조와 분할/회전/병합 규칙은 BTree 와 같다.
+ *
+ * Comparator 를 주지 않으면 키의 자연 순서(Comparable)를 쓴다. 복합 키는 Comparator 를 조합해서 만들면 된다.
+ * <pre>
+ * new GenericBTree&lt;Person, String&gt;(64, Comparator.comparing(Person::city).thenComparingInt(Person::age));
+ * </pre>
+ *
+ * 비교가 Comparator 호출을 거치고 키가 객체라서, 키가 long 이거나 byte[] 로 정규화할 수 있다면
+ * {@link LongBTree}, {@link ByteKeyBTree} 가 더 빠르다.
+ */
+public class GenericBTree<K, V> extends KeyedBTree<K[], V> {
+    private final Comparator<? super K> comparator;   // null 이면 자연 순서
+
+    public GenericBTree(int degrees) {
+        this(degrees, null);
+    }
+
+    public GenericBTree(int degrees, Comparator<? super K> comparator) {
+        super(degrees);
+        this.comparator = comparator;
+    }
+
+    public V search(K key) {
+        Node<K[], V> current = root;
+        while (current != null) {
+            int idx = indexOf(current, key);
+            if (idx >= 0) {
+                return current.values[idx];
+            }
+            if (current.isLeaf) {
+                return null;
+            }
+            current = current.children[-(idx + 1)];
+        }
+        return null;
+    }
+
+    /** 이미 있는 키면 무시한다. (BTree 와 같다) */
+    public void insert(K key, V value) {
+        if (key == null) {
+            throw new NullPointerException("key");
+        }
+        Node<K[], V> current = rootForInsert();
+        int depth = 0;
+        while (true) {
+            int idx = indexOf(current, key);
+            if (idx >= 0) return;
+            idx = -(idx + 1);
+            if (current.isLeaf) {
+                openSlot(current, idx);
+                current.keys[idx] = key;
+                insertAt(current, depth, idx, value);
+                return;
+            }
+            push(depth++, current, idx);
+            current = current.children[idx];
+        }
+    }
+
+    public void delete(K key) {
+        Node<K[], V> current = root;
+        int depth = 0;
+        while (current != null) {
+            int idx = indexOf(current, key);
+            if (idx >= 0) {
+                deleteAt(current, depth, idx);
+                return;
+            }
+            if (current.isLeaf) return;
+            push(depth++, current, -(idx + 1));
+            current = current.children[-(idx + 1)];
+        }
+    }
+
+    /** 키 순서대로 방문한다. */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        forEachSlot((keys, idx, value) -> action.accept(keys[idx], value));
+    }
+
+    // 찾으면 위치, 없으면 -(들어갈 위치 + 1). Arrays.binarySearch 는 comparator 가 null 이면 자연 순서로 비교한다.
+    private int indexOf(Node<K[], V> node, K key) {
+        return Arrays.binarySearch(node.keys, 0, node.size, key, comparator);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    K[] newKeys(int capacity) {
+        return (K[]) new Object[capacity];
+    }
+
+    @Override
+    String keyToString(K[] keys, int idx) {
+        return String.valueOf(keys[idx]);
+    }
+
+    /**
+     * 같은 키를 세 가지 방식으로 담았을 때 검색 속도를 비교한다.
+     * 1) long 키 : GenericBTree&lt;Long&gt; vs LongBTree
+     * 2) (도시, 나이, id) 복합 키 : Comparator 체인 vs ByteKeys 로 정규화한 ByteKeyBTree
+     */
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int degrees = 64;
+        Random random = new Random(42);
+
+        long[] longKeys = new long[n];
+        for (int i = 0; i < n; i++) {
+            longKeys[i] = random.nextLong();
+        }
+        GenericBTree<Long, String> boxed = new GenericBTree<>(degrees);
+        LongBTree<String> primitive = new LongBTree<>(degrees);
+        for (long key : longKeys) {
+            boxed.insert(key, "v");
+            primitive.insert(key, "v");
+        }
+
+        String[] cities = {"Seoul", "Busan", "Incheon", "Daegu", "Daejeon", "Gwangju", "Ulsan", "Suwon"};
+        Person[] people = new Person[n];
+        byte[][] encoded = new byte[n][];
+        for (int i = 0; i < n; i++) {
+            people[i] = new Person(cities[random.nextInt(cities.length)], random.nextInt(100), i);
+            encoded[i] = people[i].encode();
+        }
+        GenericBTree<Person, String> composite = new GenericBTree<>(degrees,
+                Comparator.comparing((Person p) -> p.city).thenComparingInt(p -> p.age).thenComparingInt(p -> p.id));
+        ByteKeyBTree<String> normalized = new ByteKeyBTree<>(degrees);
+        for (int i = 0; i < n; i++) {
+            composite.insert(people[i], "v");
+            normalized.insert(encoded[i], "v");
+        }
+
+        for (int round = 0; round < 3; round++) {
+            System.out.println("round " + round);
+            report("GenericBTree<Long>", n, () -> {
+                for (long key : longKeys) if (boxed.search(key) == null) throw new IllegalStateException();
+            });
+            report("LongBTree", n, () -> {
+                for (long key : longKeys) if (primitive.search(key) == null) throw new IllegalStateException();
+            });
+            report("Comparator chain", n, () -> {
+                for (Person key : people) if (composite.search(key) == null) throw new IllegalStateException();
+            });
+            report("ByteKeyBTree", n, () -> {
+                for (byte[] key : encoded) if (normalized.search(key) == null) throw new IllegalStateException();
+            });
+        }
+    }
+
+    private static void report(String name, int n, Runnable body) {
+        long start = System.nanoTime();
+        body.run();
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("  %-20s %6.1f ns/search%n", name, (double) elapsed / n);
+    }
+
+    private static class Person {
+        final String city;
+        final int age;
+        final int id;
+
+        Person(String city, int age, int id) {
+            this.city = city;
+            this.age = age;
+            this.id = id;
+        }
+
+        byte[] encode() {
+            return ByteKeys.builder().addString(city).addInt(age).addInt(id).build();
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package DataStructure.NonLinear.BTree;
+
+import java.util.Arrays;
+
+/**
+ * GenericBTree, LongBTree, ByteKeyBTree 가 같이 쓰는 노드 구조와 분할/회전/병합.
+ *
+ * 세 트리는 키를 담는 배열(A = K[], long[], byte[][])과 비교 방법만 다르다.
+ * 여기서는 키를 값으로 다루지 않고 System.arraycopy 로 칸째 옮기기만 하므로 long[] 키도 박싱 없이 그대로 움직인다.
+ * 키 비교가 필요한 search / insert / delete 의 탐색은 각 트리가 자기 키 타입으로 하고,
+ * 찾은 자리를 {@link #openSlot} / {@link #insertAt} / {@link #deleteAt} 에 넘겨 구조를 고친다.
+ * 노드는 부모를 가리키지 않는다. 탐색하며 {@link #push} 로 경로를 남기면 분할/회전이 그 경로로 부모를 찾는다. (BTree 와 같다)
+ */
+abstract class KeyedBTree<A, V> {
+    final int degrees;
+    final int minKeys;
+    final int maxKeys;
+    Node<A, V> root;
+    private int count;
+
+    // 루트에서 내려온 경로. pathNodes[d] 는 깊이 d 의 노드, pathSlots[d] 는 거기서 내려간 자식 번호.
+    private Node<A, V>[] pathNodes = newPath(16);
+    private int[] pathSlots = new int[16];
+
+    KeyedBTree(int degrees) {
+        if (degrees < 3) {
+            throw new IllegalArgumentException("degrees must be at least 3: " + degrees);
+        }
+        this.degrees = degrees;
+        this.maxKeys = degrees - 1;
+        this.minKeys = (degrees - 1) / 2;
+    }
+
+    /** 키 capacity 개를 담을 빈 배열 */
+    abstract A newKeys(int capacity);
+
+    abstract String keyToString(A keys, int idx);
+
+    public int size() {
+        return count;
+    }
+
+    /** 빈 트리면 빈 루트 리프를 만들어 돌려준다. 삽입 탐색의 시작점이다. */
+    final Node<A, V> rootForInsert() {
+        if (root == null) {
+            root = newNode(true);
+        }
+        return root;
+    }
+
+    /** 탐색 중 깊이 depth 의 node 에서 slot 번 자식으로 내려간다고 기록한다. */
+    final void push(int depth, Node<A, V> node, int slot) {
+        if (depth == pathNodes.length) {
+            pathNodes = Arrays.copyOf(pathNodes, depth * 2);
+            pathSlots = Arrays.copyOf(pathSlots, depth * 2);
+        }
+        pathNodes[depth] = node;
+        pathSlots[depth] = slot;
+    }
+
+    /**
+     * openSlot 으로 비운 leaf 의 idx 자리에 키를 써 둔 뒤 부른다. 값을 넣고 키 수가 넘치면 분할한다.
+     * depth 는 leaf 의 깊이이고, 그 위의 경로는 push 로 기록되어 있어야 한다.
+     */
+    final void insertAt(Node<A, V> leaf, int depth, int idx, V value) {
+        leaf.values[idx] = value;
+        count++;
+        if (leaf.size > maxKeys) split(leaf, depth);
+    }
+
+    /** node 의 idx 자리를 비운다. (키, 값, 내부 노드면 idx + 1 이후의 자식을 한 칸씩 민다) */
+    final void openSlot(Node<A, V> node, int idx) {
+        int moved = node.size - idx;
+        System.arraycopy(node.keys, idx, node.keys, idx + 1, moved);
+        System.arraycopy(node.values, idx, node.values, idx + 1, moved);
+        if (!node.isLeaf) {
+            System.arraycopy(node.children, idx + 1, node.children, idx + 2, moved);
+        }
+        node.size++;
+    }
+
+    /**
+     * 깊이 depth 의 current 에서 idx 번째 키를 지운다. 내부 노드면 predecessor 와 바꾼 뒤 리프에서 지운다.
+     * current 위의 경로는 push 로 기록되어 있어야 한다.
+     */
+    final void deleteAt(Node<A, V> current, int depth, int idx) {
+        count--;
+        if (current.isLeaf) {
+            removeAt(current, idx);
+            if (current == root && current.size == 0) {
+                root = null;
+            } else if (current.size < minKeys) {
+                rotate(current, depth);
+            }
+        } else {    // predecessor 와 교환 후 삭제
+            push(depth++, current, idx);
+            Node<A, V> preNode = current.children[idx];
+            while (!preNode.isLeaf) {
+                push(depth++, preNode, preNode.size);
+                preNode = preNode.children[preNode.size];
+            }
+            System.arraycopy(preNode.keys, preNode.size - 1, current.keys, idx, 1);
+            current.values[idx] = preNode.values[preNode.size - 1];
+            removeAt(preNode, preNode.size - 1);
+            if (preNode.size < minKeys) rotate(preNode, depth);
+        }
+    }
+
+    // depth 는 current 의 깊이. 부모는 pathNodes[depth - 1] 이다.
+    private void split(Node<A, V> current, int depth) {
+        int midIdx = current.size / 2;
+
+        Node<A, V> parent;
+        int childIndex;
+        if (depth == 0) {
+            parent = newNode(false);
+            parent.children[0] = current;
+            root = parent;
+            childIndex = 0;
+        } else {
+            parent = pathNodes[depth - 1];
+            childIndex = pathSlots[depth - 1];
+        }
+
+        Node<A, V> right = newNode(current.isLeaf);
+        int rightSize = current.size - midIdx - 1;
+        System.arraycopy(current.keys, midIdx + 1, right.keys, 0, rightSize);
+        System.arraycopy(current.values, midIdx + 1, right.values, 0, rightSize);
+        if (!current.isLeaf) {
+            System.arraycopy(current.children, midIdx + 1, right.children, 0, rightSize + 1);
+            Arrays.fill(current.children, midIdx + 1, current.size + 1, null);
+        }
+
+        // 가운데 키를 부모로 올린 다음 current 의 뒤쪽 절반을 비운다
+        openSlot(parent, childIndex);
+        System.arraycopy(current.keys, midIdx, parent.keys, childIndex, 1);
+        parent.values[childIndex] = current.values[midIdx];
+        parent.children[childIndex + 1] = right;
+
+        clearKeys(current.keys, midIdx, current.size);
+        Arrays.fill(current.values, midIdx, current.size, null);
+        current.size = midIdx;
+        right.size = rightSize;
+
+        if (parent.size > maxKeys) split(parent, depth - 1);
+    }
+
+    // depth 는 current 의 깊이. 부모와 부모 안의 위치는 경로에 기록되어 있다.
+    private void rotate(Node<A, V> current, int depth) {
+        if (depth == 0) return;
+        Node<A, V> parent = pathNodes[depth - 1];
+        int idx = pathSlots[depth - 1];
+        Node<A, V> prevSibling = idx != 0 ? parent.children[idx - 1] : null;
+        Node<A, V> nextSibling = idx != parent.size ? parent.children[idx + 1] : null;
+
+        if (prevSibling != null && prevSibling.size > minKeys) {
+            System.arraycopy(current.keys, 0, current.keys, 1, current.size);
+            System.arraycopy(current.values, 0, current.values, 1, current.size);
+            System.arraycopy(parent.keys, idx - 1, current.keys, 0, 1);
+            current.values[0] = parent.values[idx - 1];
+            if (!current.isLeaf) {
+                System.arraycopy(current.children, 0, current.children, 1, current.size + 1);
+                Node<A, V> prevChild = prevSibling.children[prevSibling.size];
+                prevSibling.children[prevSibling.size] = null;
+                current.children[0] = prevChild;
+            }
+            current.size++;
+
+            int last = prevSibling.size - 1;
+            System.arraycopy(prevSibling.keys, last, parent.keys, idx - 1, 1);
+            parent.values[idx - 1] = prevSibling.values[last];
+            clearKeys(prevSibling.keys, last, last + 1);
+            prevSibling.values[last] = null;
+            prevSibling.size--;
+        } else if (nextSibling != null && nextSibling.size > minKeys) {
+            System.arraycopy(parent.keys, idx, current.keys, current.size, 1);
+            current.values[current.size] = parent.values[idx];
+            if (!current.isLeaf) {
+                current.children[current.size + 1] = nextSibling.children[0];
+                System.arraycopy(nextSibling.children, 1, nextSibling.children, 0, nextSibling.size);
+                nextSibling.children[nextSibling.size] = null;
+            }
+            current.size++;
+
+            System.arraycopy(nextSibling.keys, 0, parent.keys, idx, 1);
+            parent.values[idx] = nextSibling.values[0];
+            removeAt(nextSibling, 0);
+        } else if (idx > 0) {
+            merge(parent, idx - 1, idx, depth - 1);
+        } else {
+            merge(parent, idx, idx + 1, depth - 1);
+        }
+    }
+
+    // parentDepth 는 parent 의 깊이. 병합으로 parent 가 모자라면 그 깊이에서 다시 회전한다.
+    private void merge(Node<A, V> parent, int leftIdx, int rightIdx, int parentDepth) {
+        Node<A, V> left = parent.children[leftIdx];
+        Node<A, V> right = parent.children[rightIdx];
+
+        System.arraycopy(parent.keys, leftIdx, left.keys, left.size, 1);
+        left.values[left.size] = parent.values[leftIdx];
+        System.arraycopy(right.keys, 0, left.keys, left.size + 1, right.size);
+        System.arraycopy(right.values, 0, left.values, left.size + 1, right.size);
+        if (!left.isLeaf) {
+            System.arraycopy(right.children, 0, left.children, left.size + 1, right.size + 1);
+        }
+        left.size += right.size + 1;
+
+        removeAt(parent, leftIdx);
+        System.arraycopy(parent.children, rightIdx + 1, parent.children, rightIdx, parent.size + 1 - rightIdx);
+        parent.children[parent.size + 1] = null;
+
+        if (parent == root && parent.size == 0) {
+            root = left;
+        } else if (parent.size < minKeys) {
+            rotate(parent, parentDepth);
+        }
+    }
+
+    private void removeAt(Node<A, V> node, int idx) {
+        int moved = node.size - idx - 1;
+        System.arraycopy(node.keys, idx + 1, node.keys, idx, moved);
+        System.arraycopy(node.values, idx + 1, node.values, idx, moved);
+        node.size--;
+        node.values[node.size] = null;
+        clearKeys(node.keys, node.size, node.size + 1);
+    }
+
+    // 객체 배열이면 비운 칸은 null 로 지워 GC 가 회수할 수 있게 한다. long[] 은 그대로 둔다.
+    private static void clearKeys(Object keys, int from, int to) {
+        if (keys instanceof Object[]) {
+            Arrays.fill((Object[]) keys, from, to, null);
+        }
+    }
+
+    private Node<A, V> newNode(boolean isLeaf) {
+        return new Node<>(isLeaf, newKeys(degrees), degrees);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <A, V> Node<A, V>[] newPath(int length) {
+        return (Node<A, V>[]) new Node<?, ?>[length];
+    }
+
+    /** 키 순서대로 (키 배열, 위치, 값) 을 방문한다. */
+    final void forEachSlot(SlotVisitor<A, V> visitor) {
+        forEachSlot(root, visitor);
+    }
+
+    private void forEachSlot(Node<A, V> node, SlotVisitor<A, V> visitor) {
+        if (node == null) return;
+        for (int i = 0; i < node.size; i++) {
+            if (!node.isLeaf) forEachSlot(node.children[i], visitor);
+            visitor.visit(node.keys, i, node.values[i]);
+        }
+        if (!node.isLeaf) forEachSlot(node.children[node.size], visitor);
+    }
+
+    interface SlotVisitor<A, V> {
+        void visit(A keys, int idx, V value);
+    }
+
+    public void print() {
+        System.out.println();
+        printTree(root, 0);
+        System.out.println();
+    }
+
+    private void printTree(Node<A, V> node, int level) {
+        if (node == null)
+            return;
+        System.out.print("Level " + level + " [");
+        for (int i = 0; i < node.size; i++) {
+            System.out.print(keyToString(node.keys, i) + " ");
+        }
+        System.out.println("]");
+        if (!node.isLeaf) {
+            for (int i = 0; i <= node.size; i++) {
+                printTree(node.children[i], level + 1);
+            }
+        }
+    }
+
+    static final class Node<A, V> {
+        final A keys;
+        final V[] values;
+        final Node<A, V>[] children;
+        int size;
+        final boolean isLeaf;
+
+        @SuppressWarnings("unchecked")
+        Node(boolean isLeaf, A keys, int degrees) {
+            this.keys = keys;
+            this.values = (V[]) new Object[degrees];
+            this.children = isLeaf ? null : (Node<A, V>[]) new Node<?, ?>[degrees + 1];
+            this.isLeaf = isLeaf;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package DataStructure.NonLinear.BTree;
+
+import java.util.Arrays;
+
+/**
+ * long 키 전용 B-Tree. 구조는 GenericBTree 와 같지만 키를 long[] 에 그대로 담는다.
+ * 키 비교가 박싱 없이 배열 안에서 끝나고, 노드의 키가 연속된 메모리에 있어 이진 탐색 중 캐시 미스가 적다.
+ * 분할/회전/병합은 {@link KeyedBTree} 가 한다.
+ */
+public class LongBTree<V> extends KeyedBTree<long[], V> {
+
+    public LongBTree(int degrees) {
+        super(degrees);
+    }
+
+    public V search(long key) {
+        Node<long[], V> current = root;
+        while (current != null) {
+            int idx = indexOf(current, key);
+            if (idx >= 0) {
+                return current.values[idx];
+            }
+            if (current.isLeaf) {
+                return null;
+            }
+            current = current.children[-(idx + 1)];
+        }
+        return null;
+    }
+
+    /** 이미 있는 키면 무시한다. (BTree 와 같다) */
+    public void insert(long key, V value) {
+        Node<long[], V> current = rootForInsert();
+        int depth = 0;
+        while (true) {
+            int idx = indexOf(current, key);
+            if (idx >= 0) return;
+            idx = -(idx + 1);
+            if (current.isLeaf) {
+                openSlot(current, idx);
+                current.keys[idx] = key;
+                insertAt(current, depth, idx, value);
+                return;
+            }
+            push(depth++, current, idx);
+            current = current.children[idx];
+        }
+    }
+
+    public void delete(long key) {
+        Node<long[], V> current = root;
+        int depth = 0;
+        while (current != null) {
+            int idx = indexOf(current, key);
+            if (idx >= 0) {
+                deleteAt(current, depth, idx);
+                return;
+            }
+            if (current.isLeaf) return;
+            push(depth++, current, -(idx + 1));
+            current = current.children[-(idx + 1)];
+        }
+    }
+
+    /** 키 순서대로 방문한다. */
+    public void forEach(LongEntryConsumer<? super V> action) {
+        forEachSlot((keys, idx, value) -> action.accept(keys[idx], value));
+    }
+
+    // 찾으면 위치, 없으면 -(들어갈 위치 + 1). long[] 을 그대로 비교하므로 박싱도 Comparator 호출도 없다.
+    private int indexOf(Node<long[], V> node, long key) {
+        return Arrays.binarySearch(node.keys, 0, node.size, key);
+    }
+
+    @Override
+    long[] newKeys(int capacity) {
+        return new long[capacity];
+    }
+
+    @Override
+    String keyToString(long[] keys, int idx) {
+        return Long.toString(keys[idx]);
+    }
+
+    public interface LongEntryConsumer<V> {
+        void accept(long key, V value);
+    }
+}
@@ -0,0 +1,160 @@
+package DataStructure.NonLinear.BTree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 고정 크기 페이지 단위로 파일을 나눠 쓰는 저장소.
+ * 파일은 SEGMENT_PAGES 개 페이지씩 묶어 MappedByteBuffer 로 매핑하고, 페이지 id 로 접근한다.
+ *
+ * 0번 페이지는 메타 페이지로, 앞쪽 16바이트는 PageFile 이 쓰고 그 뒤는 사용하는 쪽(트리)이 자유롭게 쓴다.
+ * 해제된 페이지는 첫 4바이트에 다음 빈 페이지 id 를 적어 단일 연결 리스트(free list)로 관리한다.
+ *
+ * 페이지를 고칠 때는 {@link #writablePage(int)} 로 받아야 한다. 저널이 붙어 있으면 그 전에 원래 이미지를 저널에 남긴다.
+ */
+public class PageFile implements Closeable {
+    public static final int NO_PAGE = -1;
+    public static final int META_PAGE = 0;
+    public static final int USER_META_OFFSET = 16;
+
+    private static final int MAGIC = 0x42545245;   // "BTRE"
+    private static final int MAGIC_OFFSET = 0;
+    private static final int PAGE_SIZE_OFFSET = 4;
+    private static final int PAGE_COUNT_OFFSET = 8;
+    private static final int FREE_HEAD_OFFSET = 12;
+    private static final int SEGMENT_PAGES = 1024;
+
+    private final FileChannel channel;
+    private final int pageSize;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private RollbackJournal journal;
+
+    private PageFile(FileChannel channel, int pageSize) {
+        this.channel = channel;
+        this.pageSize = pageSize;
+    }
+
+    public static PageFile create(Path path, int pageSize) throws IOException {
+        if (pageSize < 64 || pageSize % 4 != 0) {
+            throw new IllegalArgumentException("pageSize must be a multiple of 4 and at least 64: " + pageSize);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        PageFile file = new PageFile(channel, pageSize);
+        ByteBuffer meta = file.writableMeta();
+        meta.putInt(MAGIC_OFFSET, MAGIC);
+        meta.putInt(PAGE_SIZE_OFFSET, pageSize);
+        meta.putInt(PAGE_COUNT_OFFSET, 1);
+        meta.putInt(FREE_HEAD_OFFSET, NO_PAGE);
+        return file;
+    }
+
+    /** 메타 페이지의 앞부분만 읽으므로 파일 크기와 상관없이 O(1) 이다. */
+    public static PageFile open(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            throw new IOException("page file does not exist: " + path);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(8);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // 헤더 8바이트를 다 읽을 때까지 반복
+        }
+        if (header.hasRemaining() || header.getInt(MAGIC_OFFSET) != MAGIC) {
+            channel.close();
+            throw new IOException("not a page file: " + path);
+        }
+        return new PageFile(channel, header.getInt(PAGE_SIZE_OFFSET));
+    }
+
+    public int pageSize() {
+        return pageSize;
+    }
+
+    public int pageCount() {
+        return meta().getInt(PAGE_COUNT_OFFSET);
+    }
+
+    public void setJournal(RollbackJournal journal) {
+        this.journal = journal;
+    }
+
+    public ByteBuffer meta() {
+        return page(META_PAGE);
+    }
+
+    public ByteBuffer writableMeta() {
+        return writablePage(META_PAGE);
+    }
+
+    /** 페이지 하나를 가리키는 버퍼. 절대 위치(get/putInt(index))로 읽는다. */
+    public ByteBuffer page(int pageId) {
+        int segment = pageId / SEGMENT_PAGES;
+        while (segments.size() <= segment) {
+            mapSegment(segments.size());
+        }
+        return segments.get(segment).slice((pageId % SEGMENT_PAGES) * pageSize, pageSize);
+    }
+
+    /** 수정할 페이지. 매핑된 메모리는 언제든 디스크로 내려갈 수 있으므로, 고치기 전에 저널에 원본을 남긴다. */
+    public ByteBuffer writablePage(int pageId) {
+        ByteBuffer page = page(pageId);
+        if (journal != null) {
+            journal.beforeWrite(pageId, page);
+        }
+        return page;
+    }
+
+    public int allocate() {
+        ByteBuffer meta = writableMeta();
+        int pageId = meta.getInt(FREE_HEAD_OFFSET);
+        if (pageId != NO_PAGE) {
+            meta.putInt(FREE_HEAD_OFFSET, page(pageId).getInt(0));
+        } else {
+            pageId = meta.getInt(PAGE_COUNT_OFFSET);
+            meta.putInt(PAGE_COUNT_OFFSET, pageId + 1);
+        }
+        ByteBuffer page = writablePage(pageId);
+        for (int i = 0; i < pageSize; i += 4) {
+            page.putInt(i, 0);
+        }
+        return pageId;
+    }
+
+    public void free(int pageId) {
+        ByteBuffer meta = writableMeta();
+        writablePage(pageId).putInt(0, meta.getInt(FREE_HEAD_OFFSET));
+        meta.putInt(FREE_HEAD_OFFSET, pageId);
+    }
+
+    /** 매핑된 변경 내용을 디스크까지 내려보낸다. */
+    public void sync() throws IOException {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        channel.force(true);
+    }
+
+    private void mapSegment(int segment) {
+        try {
+            long size = (long) SEGMENT_PAGES * pageSize;
+            segments.add(channel.map(FileChannel.MapMode.READ_WRITE, segment * size, size));
+        } catch (IOException e) {
+            throw new IllegalStateException("failed to map segment " + segment, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+        segments.clear();
+        channel.close();
+    }
+}
@@ -0,0 +1,568 @@
+package DataStructure.NonLinear.BTree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 노드 하나를 파일의 고정 크기 페이지 하나에 저장하는 B-Tree.
+ * 자식은 자바 참조 대신 페이지 id 로 가리키므로, 파일을 다시 열면 메타 페이지만 읽고 바로 사용할 수 있다.
+ * 검색은 루트에서 리프까지의 경로에 있는 페이지만 읽는다.
+ * 모든 노드 페이지는 {@link BufferPool} 을 통해 pin/unpin 하며 읽고 쓴다.
+ *
+ * 부모 포인터를 페이지에 저장하지 않는 대신, 내려가면서 지나온 페이지 id 와 자식 인덱스를 경로 배열에 기록해 두고
+ * 분할/회전/병합 시 그 경로를 거슬러 올라간다.
+ *
+ * 페이지 레이아웃 (degrees = M, 값 슬롯 = V 바이트)
+ * <pre>
+ * [0]              isLeaf (1 byte) + padding
+ * [4]              size
+ * [8]              keys      int[M]       (분할 직전 M 개까지 임시로 들어간다)
+ * [8 + 4M]         children  int[M + 1]   (페이지 id)
+ * [8 + 8M + 4]     values    M 개 * V 바이트, 각 슬롯은 [short 길이][UTF-8 바이트]
+ * </pre>
+ */
+public class PagedBTree implements Closeable {
+    public static final int DEFAULT_VALUE_BYTES = 32;
+    public static final int DEFAULT_POOL_FRAMES = 1024;
+
+    private static final int ROOT_OFFSET = PageFile.USER_META_OFFSET;
+    private static final int DEGREES_OFFSET = PageFile.USER_META_OFFSET + 4;
+    private static final int VALUE_BYTES_OFFSET = PageFile.USER_META_OFFSET + 8;
+    private static final int CHECKPOINT_LSN_OFFSET = PageFile.USER_META_OFFSET + 12;
+
+    private static final int LEAF = 0;
+    private static final int SIZE = 4;
+    private static final int KEYS = 8;
+    private static final int MAX_HEIGHT = 64;
+
+    private final PageFile file;
+    private final BufferPool pool;
+    private final int degrees;
+    private final int minKeys;
+    private final int maxKeys;
+    private final int valueBytes;
+    private final int childrenOffset;
+    private final int valuesOffset;
+
+    // 루트에서 현재 노드까지 지나온 경로 (pathPages[d] 의 pathSlots[d] 번째 자식으로 내려감)
+    private final int[] pathPages = new int[MAX_HEIGHT];
+    private final int[] pathSlots = new int[MAX_HEIGHT];
+
+    private PagedBTree(PageFile file, int poolFrames, int degrees, int valueBytes) {
+        this.file = file;
+        this.pool = new BufferPool(file, poolFrames);
+        this.degrees = degrees;
+        this.maxKeys = degrees - 1;
+        this.minKeys = (degrees - 1) / 2;
+        this.valueBytes = valueBytes;
+        this.childrenOffset = KEYS + 4 * degrees;
+        this.valuesOffset = childrenOffset + 4 * (degrees + 1);
+    }
+
+    public static int pageSize(int degrees, int valueBytes) {
+        int raw = KEYS + 4 * degrees + 4 * (degrees + 1) + valueBytes * degrees;
+        return Math.max(64, (raw + 3) & ~3);
+    }
+
+    public static PagedBTree create(Path path, int degrees) throws IOException {
+        return create(path, degrees, DEFAULT_VALUE_BYTES, DEFAULT_POOL_FRAMES);
+    }
+
+    public static PagedBTree create(Path path, int degrees, int valueBytes, int poolFrames) throws IOException {
+        if (degrees < 3) {
+            throw new IllegalArgumentException("degrees must be at least 3: " + degrees);
+        }
+        if (valueBytes < 3 || valueBytes > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("valueBytes out of range: " + valueBytes);
+        }
+        PageFile file = PageFile.create(path, pageSize(degrees, valueBytes));
+        ByteBuffer meta = file.writableMeta();
+        meta.putInt(ROOT_OFFSET, PageFile.NO_PAGE);
+        meta.putInt(DEGREES_OFFSET, degrees);
+        meta.putInt(VALUE_BYTES_OFFSET, valueBytes);
+        meta.putLong(CHECKPOINT_LSN_OFFSET, 0);
+        return new PagedBTree(file, poolFrames, degrees, valueBytes);
+    }
+
+    public static PagedBTree open(Path path) throws IOException {
+        return open(path, DEFAULT_POOL_FRAMES);
+    }
+
+    public static PagedBTree open(Path path, int poolFrames) throws IOException {
+        PageFile file = PageFile.open(path);
+        ByteBuffer meta = file.meta();
+        return new PagedBTree(file, poolFrames, meta.getInt(DEGREES_OFFSET), meta.getInt(VALUE_BYTES_OFFSET));
+    }
+
+    public BufferPool pool() {
+        return pool;
+    }
+
+    PageFile file() {
+        return file;
+    }
+
+    /** 페이지 파일에 마지막으로 반영된 WAL 레코드의 LSN. WAL 을 쓰지 않으면 항상 0 이다. */
+    public long checkpointLsn() {
+        return file.meta().getLong(CHECKPOINT_LSN_OFFSET);
+    }
+
+    void setCheckpointLsn(long lsn) {
+        file.writableMeta().putLong(CHECKPOINT_LSN_OFFSET, lsn);
+    }
+
+    public String search(int key) {
+        int pageId = root();
+        while (pageId != PageFile.NO_PAGE) {
+            ByteBuffer page = pool.pin(pageId);
+            int idx = find(page, key);
+            String result = null;
+            int next = PageFile.NO_PAGE;
+            if (idx >= 0) {
+                result = readValue(page, idx);
+            } else if (!isLeaf(page)) {
+                next = child(page, -(idx + 1));
+            }
+            pool.unpin(pageId, false);
+            if (result != null) return result;
+            pageId = next;
+        }
+        return null;
+    }
+
+    public void insert(int key, String address) {
+        byte[] encoded = encode(address);
+        int rootId = root();
+        if (rootId == PageFile.NO_PAGE) {
+            rootId = newPage(true);
+            insertAt(pool.pin(rootId), 0, key, encoded, PageFile.NO_PAGE);
+            pool.unpin(rootId, true);
+            setRoot(rootId);
+            return;
+        }
+
+        int depth = 0;
+        int pageId = rootId;
+        ByteBuffer page;
+        while (true) {
+            page = pool.pin(pageId);
+            int idx = find(page, key);
+            if (idx >= 0) {     // 이미 존재하는 키
+                pool.unpin(pageId, false);
+                return;
+            }
+            idx = -(idx + 1);
+            if (isLeaf(page)) {
+                insertAt(page, idx, key, encoded, PageFile.NO_PAGE);
+                break;
+            }
+            int next = child(page, idx);
+            pool.unpin(pageId, false);
+            pathPages[depth] = pageId;
+            pathSlots[depth] = idx;
+            depth++;
+            pageId = next;
+        }
+
+        // page 는 고정된 상태로 분할을 위로 전파한다
+        while (size(page) > maxKeys) {
+            int midIdx = size(page) / 2;
+            int midKey = key(page, midIdx);
+            byte[] midValue = readValueBytes(page, midIdx);
+            int rightId = split(page, midIdx);
+            pool.unpin(pageId, true);
+
+            if (depth == 0) {
+                int newRoot = newPage(false);
+                ByteBuffer rootPage = pool.pin(newRoot);
+                setChild(rootPage, 0, pageId);
+                insertAt(rootPage, 0, midKey, midValue, rightId);
+                pool.unpin(newRoot, true);
+                setRoot(newRoot);
+                return;
+            }
+            depth--;
+            pageId = pathPages[depth];
+            page = pool.pin(pageId);
+            insertAt(page, pathSlots[depth], midKey, midValue, rightId);
+        }
+        pool.unpin(pageId, true);
+    }
+
+    public void delete(int key) {
+        int pageId = root();
+        if (pageId == PageFile.NO_PAGE) return;
+
+        int depth = 0;
+        ByteBuffer page;
+        int idx;
+        while (true) {
+            page = pool.pin(pageId);
+            idx = find(page, key);
+            if (idx >= 0) break;
+            if (isLeaf(page)) {
+                pool.unpin(pageId, false);
+                return;
+            }
+            idx = -(idx + 1);
+            int next = child(page, idx);
+            pool.unpin(pageId, false);
+            pathPages[depth] = pageId;
+            pathSlots[depth] = idx;
+            depth++;
+            pageId = next;
+        }
+
+        if (!isLeaf(page)) {    // predecessor 와 교환 후 리프에서 삭제
+            int targetId = pageId;
+            ByteBuffer target = page;
+            int targetIdx = idx;
+            pathPages[depth] = pageId;
+            pathSlots[depth] = idx;
+            depth++;
+            pageId = child(target, idx);
+            page = pool.pin(pageId);
+            while (!isLeaf(page)) {
+                int next = child(page, size(page));
+                pathPages[depth] = pageId;
+                pathSlots[depth] = size(page);
+                depth++;
+                pool.unpin(pageId, false);
+                pageId = next;
+                page = pool.pin(pageId);
+            }
+            idx = size(page) - 1;
+            setKey(target, targetIdx, key(page, idx));
+            copyValue(page, idx, target, targetIdx);
+            pool.unpin(targetId, true);
+        }
+        removeAt(page, idx);
+        int size = size(page);
+        boolean leaf = isLeaf(page);
+        int firstChild = leaf ? PageFile.NO_PAGE : child(page, 0);
+        pool.unpin(pageId, true);
+
+        while (depth > 0 && size < minKeys) {
+            depth--;
+            int parentId = pathPages[depth];
+            ByteBuffer parent = pool.pin(parentId);
+            boolean merged = rebalance(parent, pathSlots[depth]);
+            int parentSize = size(parent);
+            int parentFirstChild = child(parent, 0);
+            pool.unpin(parentId, true);
+            if (!merged) break;
+            pageId = parentId;
+            size = parentSize;
+            leaf = false;
+            firstChild = parentFirstChild;
+        }
+
+        if (size == 0 && pageId == root()) {
+            setRoot(leaf ? PageFile.NO_PAGE : firstChild);
+            pool.free(pageId);
+        }
+    }
+
+    public void flush() throws IOException {
+        pool.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        pool.flush();
+        file.close();
+    }
+
+    public int height() {
+        int height = 0;
+        int pageId = root();
+        while (pageId != PageFile.NO_PAGE) {
+            height++;
+            ByteBuffer page = pool.pin(pageId);
+            int next = isLeaf(page) ? PageFile.NO_PAGE : child(page, 0);
+            pool.unpin(pageId, false);
+            pageId = next;
+        }
+        return height;
+    }
+
+    public void print() {
+        System.out.println();
+        printTree(root(), 0);
+        System.out.println();
+    }
+
+    private void printTree(int pageId, int level) {
+        if (pageId == PageFile.NO_PAGE)
+            return;
+        ByteBuffer page = pool.pin(pageId);
+        int size = size(page);
+        int[] children = new int[size + 1];
+        System.out.print("Level " + level + " page " + pageId + " [");
+        for (int i = 0; i < size; i++) {
+            System.out.print(key(page, i) + " ");
+        }
+        System.out.println("]");
+        boolean leaf = isLeaf(page);
+        for (int i = 0; !leaf && i <= size; i++) {
+            children[i] = child(page, i);
+        }
+        pool.unpin(pageId, false);
+        if (!leaf) {
+            for (int child : children) {
+                printTree(child, level + 1);
+            }
+        }
+    }
+
+    // page 의 midIdx 이후 키를 새 오른쪽 페이지로 옮기고 그 id 를 돌려준다. page 는 왼쪽 노드로 남는다.
+    private int split(ByteBuffer page, int midIdx) {
+        boolean leaf = isLeaf(page);
+        int rightId = newPage(leaf);
+        ByteBuffer right = pool.pin(rightId);
+        int rightSize = size(page) - midIdx - 1;
+        for (int i = 0; i < rightSize; i++) {
+            setKey(right, i, key(page, midIdx + 1 + i));
+            copyValue(page, midIdx + 1 + i, right, i);
+        }
+        if (!leaf) {
+            for (int i = 0; i <= rightSize; i++) {
+                setChild(right, i, child(page, midIdx + 1 + i));
+            }
+        }
+        setSize(right, rightSize);
+        setSize(page, midIdx);
+        pool.unpin(rightId, true);
+        return rightId;
+    }
+
+    /**
+     * parent 의 slot 번째 자식이 최소 키 수보다 작아졌을 때 형제에게서 빌리거나 병합한다.
+     * 병합해서 parent 의 키가 줄었으면 true 를 돌려 호출한 쪽이 parent 도 확인하게 한다.
+     */
+    private boolean rebalance(ByteBuffer parent, int slot) {
+        int currentId = child(parent, slot);
+        int prevId = slot > 0 ? child(parent, slot - 1) : PageFile.NO_PAGE;
+        int nextId = slot < size(parent) ? child(parent, slot + 1) : PageFile.NO_PAGE;
+        ByteBuffer current = pool.pin(currentId);
+        ByteBuffer prevSibling = prevId != PageFile.NO_PAGE ? pool.pin(prevId) : null;
+        ByteBuffer nextSibling = nextId != PageFile.NO_PAGE ? pool.pin(nextId) : null;
+        boolean leaf = isLeaf(current);
+        int freed = PageFile.NO_PAGE;
+
+        if (prevSibling != null && size(prevSibling) > minKeys) {
+            int last = size(prevSibling) - 1;
+            if (!leaf) {
+                for (int i = size(current) + 1; i > 0; i--) {
+                    setChild(current, i, child(current, i - 1));
+                }
+                setChild(current, 0, child(prevSibling, last + 1));
+            }
+            insertKeyAt(current, 0, key(parent, slot - 1), readValueBytes(parent, slot - 1));
+            setKey(parent, slot - 1, key(prevSibling, last));
+            copyValue(prevSibling, last, parent, slot - 1);
+            setSize(prevSibling, last);
+        } else if (nextSibling != null && size(nextSibling) > minKeys) {
+            int n = size(current);
+            setKey(current, n, key(parent, slot));
+            copyValue(parent, slot, current, n);
+            if (!leaf) {
+                setChild(current, n + 1, child(nextSibling, 0));
+                for (int i = 0; i < size(nextSibling); i++) {
+                    setChild(nextSibling, i, child(nextSibling, i + 1));
+                }
+            }
+            setSize(current, n + 1);
+            setKey(parent, slot, key(nextSibling, 0));
+            copyValue(nextSibling, 0, parent, slot);
+            removeAt(nextSibling, 0);
+        } else if (prevSibling != null) {
+            merge(parent, slot - 1, prevSibling, current);
+            freed = currentId;
+        } else {
+            merge(parent, slot, current, nextSibling);
+            freed = nextId;
+        }
+
+        pool.unpin(currentId, true);
+        if (prevSibling != null) pool.unpin(prevId, true);
+        if (nextSibling != null) pool.unpin(nextId, true);
+        if (freed != PageFile.NO_PAGE) {
+            pool.free(freed);
+            return true;
+        }
+        return false;
+    }
+
+    // left 에 부모의 구분 키와 right 를 이어붙이고, 부모에서 구분 키와 right 를 가리키던 자식 포인터를 지운다
+    private void merge(ByteBuffer parent, int leftIdx, ByteBuffer left, ByteBuffer right) {
+        int n = size(left);
+        int m = size(right);
+
+        setKey(left, n, key(parent, leftIdx));
+        copyValue(parent, leftIdx, left, n);
+        for (int i = 0; i < m; i++) {
+            setKey(left, n + 1 + i, key(right, i));
+            copyValue(right, i, left, n + 1 + i);
+        }
+        if (!isLeaf(left)) {
+            for (int i = 0; i <= m; i++) {
+                setChild(left, n + 1 + i, child(right, i));
+            }
+        }
+        setSize(left, n + 1 + m);
+
+        int p = size(parent);
+        for (int i = leftIdx + 1; i < p; i++) {
+            setChild(parent, i, child(parent, i + 1));
+        }
+        removeAt(parent, leftIdx);
+    }
+
+    private int root() {
+        return file.meta().getInt(ROOT_OFFSET);
+    }
+
+    private void setRoot(int pageId) {
+        file.writableMeta().putInt(ROOT_OFFSET, pageId);
+    }
+
+    private int newPage(boolean leaf) {
+        int pageId = pool.allocate();
+        pool.pin(pageId).put(LEAF, (byte) (leaf ? 1 : 0));
+        pool.unpin(pageId, true);
+        return pageId;
+    }
+
+    private int find(ByteBuffer page, int key) {
+        int lo = 0;
+        int hi = size(page) - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int midKey = key(page, mid);
+            if (midKey < key) lo = mid + 1;
+            else if (midKey > key) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    // idx 위치에 키/값을 넣고, 내부 노드라면 rightChild 를 children[idx + 1] 에 둔다
+    private void insertAt(ByteBuffer page, int idx, int key, byte[] value, int rightChild) {
+        if (!isLeaf(page)) {
+            for (int i = size(page) + 1; i > idx + 1; i--) {
+                setChild(page, i, child(page, i - 1));
+            }
+            setChild(page, idx + 1, rightChild);
+        }
+        insertKeyAt(page, idx, key, value);
+    }
+
+    // 키/값만 옮긴다. 자식 배열은 호출한 쪽이 맞춰준다.
+    private void insertKeyAt(ByteBuffer page, int idx, int key, byte[] value) {
+        int n = size(page);
+        for (int i = n; i > idx; i--) {
+            setKey(page, i, key(page, i - 1));
+            copyValue(page, i - 1, page, i);
+        }
+        setKey(page, idx, key);
+        writeValue(page, idx, value);
+        setSize(page, n + 1);
+    }
+
+    private void removeAt(ByteBuffer page, int idx) {
+        int n = size(page);
+        for (int i = idx; i < n - 1; i++) {
+            setKey(page, i, key(page, i + 1));
+            copyValue(page, i + 1, page, i);
+        }
+        setSize(page, n - 1);
+    }
+
+    private boolean isLeaf(ByteBuffer page) {
+        return page.get(LEAF) != 0;
+    }
+
+    private int size(ByteBuffer page) {
+        return page.getInt(SIZE);
+    }
+
+    private void setSize(ByteBuffer page, int size) {
+        page.putInt(SIZE, size);
+    }
+
+    private int key(ByteBuffer page, int idx) {
+        return page.getInt(KEYS + 4 * idx);
+    }
+
+    private void setKey(ByteBuffer page, int idx, int key) {
+        page.putInt(KEYS + 4 * idx, key);
+    }
+
+    private int child(ByteBuffer page, int idx) {
+        return page.getInt(childrenOffset + 4 * idx);
+    }
+
+    private void setChild(ByteBuffer page, int idx, int pageId) {
+        page.putInt(childrenOffset + 4 * idx, pageId);
+    }
+
+    // DurableBTree 도 WAL 에 쓰기 전에 이것으로 값이 칸에 들어가는지 먼저 확인한다.
+    byte[] encode(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > valueBytes - 2) {
+            throw new IllegalArgumentException("value longer than " + (valueBytes - 2) + " bytes: " + value);
+        }
+        return bytes;
+    }
+
+    private String readValue(ByteBuffer page, int idx) {
+        return new String(readValueBytes(page, idx), StandardCharsets.UTF_8);
+    }
+
+    private byte[] readValueBytes(ByteBuffer page, int idx) {
+        int offset = valuesOffset + valueBytes * idx;
+        byte[] bytes = new byte[page.getShort(offset)];
+        page.get(offset + 2, bytes);
+        return bytes;
+    }
+
+    private void writeValue(ByteBuffer page, int idx, byte[] value) {
+        int offset = valuesOffset + valueBytes * idx;
+        page.putShort(offset, (short) value.length);
+        page.put(offset + 2, value);
+    }
+
+    private void copyValue(ByteBuffer from, int fromIdx, ByteBuffer to, int toIdx) {
+        int fromOffset = valuesOffset + valueBytes * fromIdx;
+        int length = from.getShort(fromOffset) + 2;
+        to.put(valuesOffset + valueBytes * toIdx, from, fromOffset, length);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path path = Files.createTempFile("paged-btree", ".db");
+
+        try (PagedBTree tree = PagedBTree.create(path, 4)) {
+            for (int key = 1; key <= 20; key++) {
+                tree.insert(key, "addr-" + key);
+            }
+            tree.delete(7);
+            tree.delete(8);
+            tree.print();
+        }
+
+        // 다시 열 때는 메타 페이지만 읽는다
+        try (PagedBTree reopened = PagedBTree.open(path)) {
+            System.out.println("search 5  -> " + reopened.search(5));
+            System.out.println("search 7  -> " + reopened.search(7));
+            System.out.println("search 20 -> " + reopened.search(20));
+            System.out.println("height    -> " + reopened.height());
+            System.out.println(reopened.pool());
+        }
+        Files.deleteIfExists(path);
+    }
+}
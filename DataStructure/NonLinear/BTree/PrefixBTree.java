@@ -0,0 +1,469 @@
+package DataStructure.NonLinear.BTree;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 문자열(byte[]) 키용 B+Tree. 노드 크기를 키 개수가 아니라 바이트 예산(nodeBytes)으로 정하고, 키 압축으로 한 노드에 더 많은 키를 담는다.
+ *
+ * <ul>
+ *     <li>접두사 압축 : 노드 안의 키들이 공유하는 가장 긴 접두사를 한 번만 저장하고 각 키는 나머지(suffix)만 저장한다.
+ *     정렬된 노드에서 공통 접두사는 첫 키와 마지막 키의 공통 접두사와 같으므로 분할할 때 다시 계산한다.</li>
+ *     <li>구분 키 잘라내기 : 리프를 나눌 때 올리는 구분 키는 실제 키일 필요 없이 왼쪽 마지막 키보다 크고 오른쪽 첫 키 이하이기만 하면 된다.
+ *     그래서 오른쪽 첫 키에서 둘을 구분하는 데 필요한 만큼만 잘라 올린다. 분할 위치도 가운데 근처에서 구분 키가 가장 짧아지는 곳을 고른다.</li>
+ * </ul>
+ * 값은 리프에만 있으므로 구분 키를 잘라내도 잃는 정보가 없다. (BTree 처럼 내부 노드에 값이 있으면 올라간 키가 실제 키여야 해서 잘라낼 수 없다)
+ *
+ * compress 가 false 면 접두사를 두지 않고 가운데 키를 그대로 올린다. 같은 바이트 예산에서 높이를 비교하는 용도다.
+ *
+ * delete 는 리프에서 키를 지우고, 빈 리프만 부모에서 떼어 낸다. 키 길이가 제각각이라 키 수 기준의 최소 점유율을 맞추는 병합은 하지 않는다.
+ */
+public class PrefixBTree<V> {
+    private static final byte[] EMPTY = new byte[0];
+
+    // 노드를 페이지에 직렬화한다고 가정했을 때의 크기
+    private static final int HEADER_BYTES = 8;      // isLeaf, size 등
+    private static final int LENGTH_BYTES = 2;      // 접두사/키 길이
+    private static final int CHILD_BYTES = 4;       // 자식 페이지 번호
+    private static final int VALUE_BYTES = 8;       // 값 참조
+
+    private final int nodeBytes;
+    private final boolean compress;
+    private Node root;
+    private int count;
+
+    // 루트에서 리프까지 내려온 경로. insert / delete 가 매번 새로 만들지 않고 높이가 늘면 키워 가며 다시 쓴다.
+    private Node[] pathNodes = new Node[8];
+    private int[] pathSlots = new int[8];
+
+    public PrefixBTree(int nodeBytes, boolean compress) {
+        if (nodeBytes < 128) {
+            throw new IllegalArgumentException("nodeBytes must be at least 128: " + nodeBytes);
+        }
+        this.nodeBytes = nodeBytes;
+        this.compress = compress;
+    }
+
+    /** 노드가 나뉠 때 양쪽에 키가 최소 하나씩 들어가도록 키 하나의 크기를 제한한다. */
+    public int maxKeyLength() {
+        return nodeBytes / 4;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public V search(byte[] key) {
+        Node node = root;
+        if (node == null) return null;
+        while (!node.isLeaf) {
+            node = node.children[childSlot(node, key)];
+        }
+        int idx = indexOf(node, key);
+        return idx >= 0 ? value(node, idx) : null;
+    }
+
+    /** 이미 있는 키면 무시한다. (BTree 와 같다) 키 배열은 복사하지 않으므로 넣은 뒤에 고치면 안 된다. */
+    public void insert(byte[] key, V value) {
+        if (key.length > maxKeyLength()) {
+            throw new IllegalArgumentException("key is longer than " + maxKeyLength() + " bytes: " + key.length);
+        }
+        if (root == null) {
+            root = new Node(true);
+            root.insertKey(0, key);
+            root.values[0] = value;
+            count = 1;
+            return;
+        }
+
+        int height = 0;
+        Node node = root;
+        for (; !node.isLeaf; height++) {
+            int slot = childSlot(node, key);
+            push(height, node, slot);
+            node = node.children[slot];
+        }
+
+        int idx = indexOf(node, key);
+        if (idx >= 0) return;
+        idx = -(idx + 1);
+        node.insertKey(idx, key);
+        System.arraycopy(node.values, idx, node.values, idx + 1, node.size - 1 - idx);
+        node.values[idx] = value;
+        count++;
+
+        // 넘친 노드를 나누고 구분 키를 부모에 넣는다. 부모도 넘치면 위로 올라가며 반복한다.
+        for (int level = height - 1; node.bytes > nodeBytes; level--) {
+            Node right = node.isLeaf ? splitLeaf(node) : splitInternal(node);
+            byte[] separator = right.separator;
+            right.separator = null;
+
+            if (level < 0) {
+                Node newRoot = new Node(false);
+                newRoot.children[0] = node;
+                newRoot.insertKey(0, separator);
+                newRoot.children[1] = right;
+                newRoot.bytes += CHILD_BYTES;
+                root = newRoot;
+                return;
+            }
+            Node parent = pathNodes[level];
+            int slot = pathSlots[level];
+            parent.insertKey(slot, separator);
+            System.arraycopy(parent.children, slot + 1, parent.children, slot + 2, parent.size - 1 - slot);
+            parent.children[slot + 1] = right;
+            node = parent;
+        }
+    }
+
+    public void delete(byte[] key) {
+        if (root == null) return;
+        int height = 0;
+        Node node = root;
+        for (; !node.isLeaf; height++) {
+            int slot = childSlot(node, key);
+            push(height, node, slot);
+            node = node.children[slot];
+        }
+
+        int idx = indexOf(node, key);
+        if (idx < 0) return;
+        node.removeKey(idx);
+        System.arraycopy(node.values, idx + 1, node.values, idx, node.size - idx);
+        node.values[node.size] = null;
+        count--;
+
+        // 비어 버린 노드를 부모에서 떼어 낸다. 내부 노드는 자식이 하나도 안 남았을 때 비었다고 본다.
+        boolean empty = node.size == 0;
+        for (int level = height - 1; empty && level >= 0; level--) {
+            Node parent = pathNodes[level];
+            int slot = pathSlots[level];
+            if (parent.size == 0) {
+                continue;   // 하나뿐인 자식이 비었으므로 부모도 비었다
+            }
+            int keyIdx = slot > 0 ? slot - 1 : 0;
+            parent.removeKey(keyIdx);
+            System.arraycopy(parent.children, slot + 1, parent.children, slot, parent.size + 1 - slot);
+            parent.children[parent.size + 1] = null;
+            empty = false;
+        }
+        if (empty) {
+            root = null;
+            return;
+        }
+        while (!root.isLeaf && root.size == 0) {
+            root = root.children[0];
+        }
+    }
+
+    private void push(int depth, Node node, int slot) {
+        if (depth == pathNodes.length) {
+            pathNodes = Arrays.copyOf(pathNodes, depth * 2);
+            pathSlots = Arrays.copyOf(pathSlots, depth * 2);
+        }
+        pathNodes[depth] = node;
+        pathSlots[depth] = slot;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(Node node, int idx) {
+        return (V) node.values[idx];
+    }
+
+    public int height() {
+        int height = 0;
+        for (Node node = root; node != null && !node.isLeaf; node = node.children[0]) {
+            height++;
+        }
+        return height;
+    }
+
+    /** 찾으면 위치, 없으면 -(들어갈 위치 + 1). 접두사를 먼저 비교하고 같으면 나머지 부분만 이진 탐색한다. */
+    private int indexOf(Node node, byte[] key) {
+        int p = node.prefix.length;
+        int cmp = Arrays.compareUnsigned(key, 0, Math.min(p, key.length), node.prefix, 0, p);
+        if (cmp < 0) return -1;                     // 노드의 모든 키보다 작다
+        if (cmp > 0) return -(node.size + 1);       // 노드의 모든 키보다 크다
+
+        int lo = 0;
+        int hi = node.size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            byte[] suffix = node.suffixes[mid];
+            cmp = Arrays.compareUnsigned(suffix, 0, suffix.length, key, p, key.length);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+
+    // 구분 키와 같으면 오른쪽으로 간다
+    private int childSlot(Node node, byte[] key) {
+        int idx = indexOf(node, key);
+        return idx >= 0 ? idx + 1 : -(idx + 1);
+    }
+
+    private Node splitLeaf(Node node) {
+        byte[][] keys = node.fullKeys();
+        int mid = splitPoint(node, true);
+        // 왼쪽 마지막 키와 오른쪽 첫 키를 구분하는 가장 짧은 키 (오른쪽 첫 키의 앞부분)
+        byte[] separator = compress
+                ? Arrays.copyOf(keys[mid], lcp(keys[mid - 1], keys[mid]) + 1)
+                : keys[mid];
+
+        Node right = new Node(true);
+        right.rebuild(keys, mid, keys.length, compress);
+        System.arraycopy(node.values, mid, right.values, 0, right.size);
+        Arrays.fill(node.values, mid, node.size, null);
+        node.rebuild(keys, 0, mid, compress);
+        right.separator = separator;
+        return right;
+    }
+
+    // 가운데 키는 부모로 올라가고 어느 쪽에도 남지 않는다
+    private Node splitInternal(Node node) {
+        byte[][] keys = node.fullKeys();
+        int mid = splitPoint(node, false);
+
+        Node right = new Node(false);
+        right.rebuild(keys, mid + 1, keys.length, compress);
+        System.arraycopy(node.children, mid + 1, right.children, 0, right.size + 1);
+        right.bytes += CHILD_BYTES;
+        Arrays.fill(node.children, mid + 1, node.size + 1, null);
+        node.rebuild(keys, 0, mid, compress);
+        node.bytes += CHILD_BYTES;
+        right.separator = keys[mid];
+        return right;
+    }
+
+    /**
+     * 바이트 기준으로 가운데에 가까운 분할 위치를 고른다. 압축할 때는 양쪽이 전체의 1/3 ~ 2/3 인 범위 안에서
+     * 올라갈 구분 키가 가장 짧아지는 위치를 고른다. (리프는 이웃한 두 키의 공통 접두사, 내부 노드는 올라갈 키 자체의 길이)
+     */
+    private int splitPoint(Node node, boolean leaf) {
+        int total = 0;
+        for (int i = 0; i < node.size; i++) {
+            total += node.suffixes[i].length;
+        }
+        int low = 1;
+        int high = leaf ? node.size - 1 : node.size - 2;    // 내부 노드는 올라가는 키 오른쪽에도 키가 남아야 한다
+        int best = -1;
+        int bestLength = Integer.MAX_VALUE;
+        int seen = 0;
+        int middle = -1;
+        for (int i = 0; i < node.size; i++) {
+            if (middle < 0 && seen * 2 >= total) middle = i;
+            if (compress && i >= low && i <= high && seen * 3 >= total && seen * 3 <= total * 2) {
+                int length = leaf ? lcp(node.suffixes[i - 1], node.suffixes[i]) : node.suffixes[i].length;
+                if (length < bestLength) {
+                    bestLength = length;
+                    best = i;
+                }
+            }
+            seen += node.suffixes[i].length;
+        }
+        if (best >= 0) return best;
+        if (middle < 0) middle = node.size / 2;
+        return Math.max(low, Math.min(high, middle));
+    }
+
+    private static int lcp(byte[] a, byte[] b) {
+        int mismatch = Arrays.mismatch(a, b);
+        return mismatch < 0 ? a.length : mismatch;
+    }
+
+    /** 높이, 노드 수, 내부 노드의 평균 팬아웃, 노드가 차지하는 바이트를 돌려준다. */
+    public String stats() {
+        long[] totals = new long[4];    // 노드 수, 내부 노드 수, 내부 노드 자식 수, 바이트
+        collect(root, totals);
+        double fanout = totals[1] == 0 ? 0 : (double) totals[2] / totals[1];
+        return String.format("height=%d nodes=%,d fanout=%.1f bytes=%,d",
+                root == null ? 0 : height() + 1, totals[0], fanout, totals[3]);
+    }
+
+    private void collect(Node node, long[] totals) {
+        if (node == null) return;
+        totals[0]++;
+        totals[3] += node.bytes;
+        if (!node.isLeaf) {
+            totals[1]++;
+            totals[2] += node.size + 1;
+            for (int i = 0; i <= node.size; i++) {
+                collect(node.children[i], totals);
+            }
+        }
+    }
+
+    public void print() {
+        System.out.println();
+        printTree(root, 0);
+        System.out.println();
+    }
+
+    private void printTree(Node node, int level) {
+        if (node == null)
+            return;
+        System.out.print("Level " + level + (node.isLeaf ? " leaf " : " ") + "(" + text(node.prefix) + ")[");
+        for (int i = 0; i < node.size; i++) {
+            System.out.print(text(node.suffixes[i]) + " ");
+        }
+        System.out.println("]");
+        if (!node.isLeaf) {
+            for (int i = 0; i <= node.size; i++) {
+                printTree(node.children[i], level + 1);
+            }
+        }
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 키는 prefix + suffixes[i] 로 저장한다. 키 수가 노드마다 다르므로 배열은 필요할 때 두 배로 늘린다.
+     * bytes 는 이 노드를 페이지에 쓴다고 했을 때의 크기이고 nodeBytes 를 넘으면 나눈다.
+     */
+    private static final class Node {
+        final boolean isLeaf;
+        byte[] prefix = EMPTY;
+        byte[][] suffixes = new byte[8][];
+        Object[] values;
+        Node[] children;
+        int size;
+        int bytes;
+        byte[] separator;   // 분할 직후 부모에 넘길 구분 키
+
+        Node(boolean isLeaf) {
+            this.isLeaf = isLeaf;
+            if (isLeaf) {
+                values = new Object[8];
+            } else {
+                children = new Node[9];
+            }
+            bytes = HEADER_BYTES + LENGTH_BYTES;
+        }
+
+        int entryBytes(byte[] suffix) {
+            return LENGTH_BYTES + suffix.length + (isLeaf ? VALUE_BYTES : CHILD_BYTES);
+        }
+
+        /** 키를 idx 에 넣는다. 키가 접두사로 시작하지 않으면 접두사를 줄이고 기존 키들에 떼어 낸 부분을 되돌려 붙인다. */
+        void insertKey(int idx, byte[] key) {
+            if (size == 0) {
+                bytes -= prefix.length;
+                prefix = EMPTY;
+            } else if (lcp(prefix, key) < prefix.length) {
+                shrinkPrefix(lcp(prefix, key));
+            }
+            if (size == suffixes.length) grow();
+            byte[] suffix = prefix.length == 0 ? key : Arrays.copyOfRange(key, prefix.length, key.length);
+            System.arraycopy(suffixes, idx, suffixes, idx + 1, size - idx);
+            suffixes[idx] = suffix;
+            size++;
+            bytes += entryBytes(suffix);
+        }
+
+        void removeKey(int idx) {
+            bytes -= entryBytes(suffixes[idx]);
+            System.arraycopy(suffixes, idx + 1, suffixes, idx, size - idx - 1);
+            size--;
+            suffixes[size] = null;
+        }
+
+        private void shrinkPrefix(int length) {
+            byte[] dropped = Arrays.copyOfRange(prefix, length, prefix.length);
+            for (int i = 0; i < size; i++) {
+                byte[] suffix = new byte[dropped.length + suffixes[i].length];
+                System.arraycopy(dropped, 0, suffix, 0, dropped.length);
+                System.arraycopy(suffixes[i], 0, suffix, dropped.length, suffixes[i].length);
+                suffixes[i] = suffix;
+            }
+            bytes += dropped.length * (size - 1);   // 키마다 늘고 접두사에서 한 번 준다
+            prefix = Arrays.copyOf(prefix, length);
+        }
+
+        byte[][] fullKeys() {
+            byte[][] keys = new byte[size][];
+            for (int i = 0; i < size; i++) {
+                keys[i] = prefix.length == 0 ? suffixes[i] : concat(prefix, suffixes[i]);
+            }
+            return keys;
+        }
+
+        /** keys[from, to) 로 키를 다시 채운다. 압축할 때는 첫 키와 마지막 키의 공통 접두사를 새 접두사로 잡는다. */
+        void rebuild(byte[][] keys, int from, int to, boolean compress) {
+            int n = to - from;
+            prefix = compress && n > 0 ? Arrays.copyOf(keys[from], lcp(keys[from], keys[to - 1])) : EMPTY;
+            if (suffixes.length < n) {
+                suffixes = new byte[n][];
+            }
+            Arrays.fill(suffixes, null);
+            bytes = HEADER_BYTES + LENGTH_BYTES + prefix.length;
+            for (int i = 0; i < n; i++) {
+                byte[] key = keys[from + i];
+                suffixes[i] = prefix.length == 0 ? key : Arrays.copyOfRange(key, prefix.length, key.length);
+                bytes += entryBytes(suffixes[i]);
+            }
+            size = n;
+            if (isLeaf && values.length < suffixes.length) {
+                values = Arrays.copyOf(values, suffixes.length);
+            } else if (!isLeaf && children.length < suffixes.length + 1) {
+                children = Arrays.copyOf(children, suffixes.length + 1);
+            }
+        }
+
+        private void grow() {
+            int capacity = suffixes.length * 2;
+            suffixes = Arrays.copyOf(suffixes, capacity);
+            if (isLeaf) {
+                values = Arrays.copyOf(values, capacity);
+            } else {
+                children = Arrays.copyOf(children, capacity + 1);
+            }
+        }
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] joined = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+
+    /**
+     * 공통 접두사가 긴 URL 형태의 키를 같은 바이트 예산의 두 트리에 넣고 높이와 팬아웃, 검색 시간을 비교한다.
+     */
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int nodeBytes = args.length > 1 ? Integer.parseInt(args[1]) : 4096;
+
+        String[] sections = {"users", "orders", "products", "reviews"};
+        Random random = new Random(42);
+        byte[][] keys = new byte[n][];
+        for (int i = 0; i < n; i++) {
+            String section = sections[random.nextInt(sections.length)];
+            keys[i] = String.format("https://shop.example.com/api/v2/%s/%010d/detail", section, random.nextInt(1_000_000_000))
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+
+        for (boolean compress : new boolean[]{false, true}) {
+            PrefixBTree<Integer> tree = new PrefixBTree<>(nodeBytes, compress);
+            for (int i = 0; i < n; i++) {
+                tree.insert(keys[i], i);
+            }
+            long start = System.nanoTime();
+            for (int round = 0; round < 3; round++) {
+                for (byte[] key : keys) {
+                    if (tree.search(key) == null) throw new IllegalStateException("missing key");
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("compress=%-5b %s  search %.0f ns%n", compress, tree.stats(), (double) elapsed / (3L * n));
+        }
+    }
+}
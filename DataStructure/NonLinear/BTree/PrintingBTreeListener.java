@@ -0,0 +1,47 @@
+package DataStructure.NonLinear.BTree;
+
+/**
+ * 각 연산의 진행 상황과 변경 후 트리 전체를 콘솔에 출력하는 리스너.
+ * 트리 전체를 매번 출력하므로 학습/데모 용도로만 사용한다.
+ */
+public class PrintingBTreeListener implements BTreeListener {
+    @Override
+    public void onInsert(int key, String address) {
+        System.out.println("Inserting " + key + " " + address);
+    }
+
+    @Override
+    public void onDelete(int key) {
+        System.out.println("Deleting " + key);
+    }
+
+    @Override
+    public void onSplit() {
+        System.out.println("Splitting");
+    }
+
+    @Override
+    public void onBorrowFromPrevious() {
+        System.out.println("Borrowing from previous sibling");
+    }
+
+    @Override
+    public void onBorrowFromNext() {
+        System.out.println("Borrowing from next sibling");
+    }
+
+    @Override
+    public void onCannotBorrow() {
+        System.out.println("Cant't borrow");
+    }
+
+    @Override
+    public void onMerge() {
+        System.out.println("Merging");
+    }
+
+    @Override
+    public void onChanged(BTree tree) {
+        tree.print();
+    }
+}
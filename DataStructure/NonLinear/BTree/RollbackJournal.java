@@ -0,0 +1,110 @@
+package DataStructure.NonLinear.BTree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.zip.CRC32;
+
+/**
+ * 마지막 체크포인트 시점의 페이지 원본을 보관하는 저널.
+ *
+ * 페이지 파일은 매핑된 메모리라 고치는 즉시 언제든 디스크로 내려갈 수 있다. 그래서 체크포인트 이후 어떤 페이지를
+ * 처음 고치기 전에 원래 이미지를 저널에 쓰고 fsync 해 둔다. 크래시가 나면 {@link #recover(Path, Path, int)} 가
+ * 저널의 이미지를 되돌려 써서 페이지 파일을 체크포인트 시점으로 되돌리고, 그 뒤의 변경은 WAL 을 다시 적용해 복구한다.
+ *
+ * 레코드 형식: [int pageId][pageSize 바이트 이미지][int crc32]
+ */
+public class RollbackJournal implements Closeable {
+    private final FileChannel channel;
+    private final int pageSize;
+    private final ByteBuffer record;
+    private final CRC32 crc = new CRC32();
+    private final BitSet journaled = new BitSet();
+    private int baselinePageCount;
+
+    public RollbackJournal(Path path, int pageSize, int baselinePageCount) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.pageSize = pageSize;
+        this.record = ByteBuffer.allocate(4 + pageSize + 4);
+        reset(baselinePageCount);
+    }
+
+    /** 체크포인트가 끝나 페이지 파일 자체가 새 기준점이 되었을 때 호출한다. */
+    public void reset(int baselinePageCount) throws IOException {
+        channel.truncate(0);
+        channel.force(true);
+        journaled.clear();
+        this.baselinePageCount = baselinePageCount;
+    }
+
+    /** 체크포인트 이후 처음 고치는 기존 페이지라면 원본을 저널에 남기고 디스크까지 내린다. */
+    void beforeWrite(int pageId, ByteBuffer page) {
+        // 체크포인트 뒤에 새로 늘어난 페이지는 되돌릴 원본이 없다
+        if (pageId >= baselinePageCount || journaled.get(pageId)) return;
+
+        record.clear();
+        record.putInt(pageId);
+        record.put(record.position(), page, 0, pageSize);
+        record.position(4 + pageSize);
+        crc.reset();
+        crc.update(record.array(), 0, 4 + pageSize);
+        record.putInt((int) crc.getValue());
+        record.flip();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        journaled.set(pageId);
+    }
+
+    /**
+     * 저널에 남은 원본 이미지를 페이지 파일에 되돌려 쓴다.
+     * 마지막 레코드가 중간까지만 쓰였다면(crc 불일치) 그 페이지는 아직 고쳐지기 전이므로 무시한다.
+     */
+    public static void recover(Path journalPath, Path dbPath, int pageSize) throws IOException {
+        if (!Files.exists(journalPath) || !Files.exists(dbPath) || Files.size(journalPath) == 0) return;
+
+        ByteBuffer record = ByteBuffer.allocate(4 + pageSize + 4);
+        CRC32 crc = new CRC32();
+        try (FileChannel journal = FileChannel.open(journalPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileChannel db = FileChannel.open(dbPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = 0;
+            while (true) {
+                record.clear();
+                while (record.hasRemaining() && journal.read(record, position + record.position()) > 0) {
+                    // 레코드 하나를 다 읽을 때까지 반복
+                }
+                if (record.hasRemaining()) break;
+                crc.reset();
+                crc.update(record.array(), 0, 4 + pageSize);
+                if ((int) crc.getValue() != record.getInt(4 + pageSize)) break;
+
+                int pageId = record.getInt(0);
+                ByteBuffer image = ByteBuffer.wrap(record.array(), 4, pageSize);
+                long offset = (long) pageId * pageSize;
+                while (image.hasRemaining()) {
+                    db.write(image, offset + image.position() - 4);
+                }
+                position += record.capacity();
+            }
+            db.force(true);
+            journal.truncate(0);
+            journal.force(true);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,249 @@
+package DataStructure.NonLinear.BTree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * 트리 변경을 순서대로 덧붙이기만 하는 로그(WAL).
+ * 페이지를 몇 개 고쳤는지와 상관없이 insert/delete 한 번이 레코드 하나이므로 로그는 작고 순차적으로만 쓰인다.
+ *
+ * 레코드 형식 (고정 헤더 19 바이트 + 값 + crc 4 바이트)
+ * <pre>
+ * [int 전체 길이][byte 타입][long LSN][int key][short 값 길이][값 바이트][int crc32]
+ * </pre>
+ *
+ * 두 가지 동기화 모드가 있다.
+ * <ul>
+ *     <li>SYNC_EACH : append 할 때마다 바로 쓰고 fsync 한다.</li>
+ *     <li>GROUP : append 는 메모리 버퍼에만 쌓고, {@link #commit(long)} 에 처음 도착한 스레드가 리더가 되어
+ *     그때까지 쌓인 레코드를 한 번에 쓰고 fsync 한다. 그동안 도착한 다른 스레드들은 리더의 fsync 에 묻어간다.</li>
+ * </ul>
+ *
+ * 쓰기나 fsync 가 실패하면 어디까지 디스크에 남았는지 알 수 없으므로 로그를 실패 상태로 두고,
+ * 그 뒤의 append/commit 은 모두 IOException 을 던진다. 실패한 배치의 LSN 을 durable 로 보고하는 일은 없다.
+ * 다시 쓰려면 닫고 replay 로 유효한 길이를 구해 다시 연다.
+ */
+public class WriteAheadLog implements Closeable {
+    public enum Mode { SYNC_EACH, GROUP }
+
+    public static final byte INSERT = 1;
+    public static final byte DELETE = 2;
+
+    private static final int HEADER_BYTES = 4 + 1 + 8 + 4 + 2;
+    private static final int CRC_BYTES = 4;
+
+    private final FileChannel channel;
+    private final Mode mode;
+    private final CRC32 crc = new CRC32();
+
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);   // append 됐지만 아직 쓰지 않은 레코드
+    private ByteBuffer spare = ByteBuffer.allocate(64 * 1024);
+    private long lastLsn;
+    private long durableLsn;
+    private boolean flushing;
+    private long syncCount;
+    private IOException failure;    // 쓰기나 fsync 가 한 번이라도 실패하면 남는다. 이후 append/commit 은 모두 실패한다.
+
+    WriteAheadLog(FileChannel channel, Mode mode, long lastLsn) {
+        this.channel = channel;
+        this.mode = mode;
+        this.lastLsn = lastLsn;
+        this.durableLsn = lastLsn;
+    }
+
+    /**
+     * 로그 파일을 열고 끝에 이어 쓴다. validLength 뒤의 바이트(크래시로 중간까지만 쓰인 레코드)는 잘라낸다.
+     * lastLsn 은 이미 사용된 마지막 LSN 이다.
+     */
+    public static WriteAheadLog open(Path path, Mode mode, long validLength, long lastLsn) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.truncate(validLength);
+        channel.position(validLength);
+        return new WriteAheadLog(channel, mode, lastLsn);
+    }
+
+    public interface RecordHandler {
+        void apply(byte type, long lsn, int key, byte[] value);
+    }
+
+    /**
+     * 로그를 처음부터 읽어 afterLsn 보다 큰 레코드만 handler 에 넘긴다.
+     * crc 가 맞지 않거나 잘린 레코드를 만나면 거기서 멈춘다. 그 레코드는 커밋이 끝나지 않은 것이다.
+     *
+     * @return {유효한 로그 길이, 마지막 유효 LSN}
+     */
+    public static long[] replay(Path path, long afterLsn, RecordHandler handler) throws IOException {
+        long lastLsn = afterLsn;
+        if (!Files.exists(path)) return new long[]{0, lastLsn};
+
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+            while (position + HEADER_BYTES + CRC_BYTES <= size) {
+                lengthBuffer.clear();
+                channel.read(lengthBuffer, position);
+                int length = lengthBuffer.getInt(0);
+                if (length < HEADER_BYTES + CRC_BYTES || position + length > size) break;
+
+                ByteBuffer record = ByteBuffer.allocate(length);
+                while (record.hasRemaining() && channel.read(record, position + record.position()) > 0) {
+                    // 레코드 하나를 다 읽을 때까지 반복
+                }
+                crc.reset();
+                crc.update(record.array(), 0, length - CRC_BYTES);
+                if ((int) crc.getValue() != record.getInt(length - CRC_BYTES)) break;
+
+                byte type = record.get(4);
+                long lsn = record.getLong(5);
+                int key = record.getInt(13);
+                byte[] value = new byte[record.getShort(17)];
+                record.get(HEADER_BYTES, value);
+                if (lsn > afterLsn) {
+                    handler.apply(type, lsn, key, value);
+                }
+                lastLsn = Math.max(lastLsn, lsn);
+                position += length;
+            }
+            return new long[]{position, lastLsn};
+        }
+    }
+
+    /** 레코드를 추가하고 LSN 을 돌려준다. GROUP 모드에서는 {@link #commit(long)} 전까지 디스크에 있다는 보장이 없다. */
+    public synchronized long append(byte type, int key, byte[] value) throws IOException {
+        checkNotFailed();
+        int length = HEADER_BYTES + value.length + CRC_BYTES;
+        if (pending.remaining() < length) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + length));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+
+        long lsn = ++lastLsn;
+        int start = pending.position();
+        pending.putInt(length).put(type).putLong(lsn).putInt(key).putShort((short) value.length).put(value);
+        crc.reset();
+        crc.update(pending.array(), start, length - CRC_BYTES);
+        pending.putInt((int) crc.getValue());
+
+        if (mode == Mode.SYNC_EACH) {
+            try {
+                pending.flip();
+                while (pending.hasRemaining()) {
+                    channel.write(pending);
+                }
+                pending.clear();
+                channel.force(false);
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            }
+            syncCount++;
+            durableLsn = lsn;
+        }
+        return lsn;
+    }
+
+    /** lsn 까지의 레코드가 디스크에 내려갈 때까지 기다린다. */
+    public void commit(long lsn) throws IOException {
+        while (true) {
+            ByteBuffer batch;
+            long target;
+            synchronized (this) {
+                while (flushing && durableLsn < lsn && failure == null) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("interrupted while waiting for group commit");
+                    }
+                }
+                if (durableLsn >= lsn) return;
+                checkNotFailed();
+
+                // 리더가 되어 지금까지 쌓인 레코드를 모두 가져간다. 그동안 다른 스레드는 spare 버퍼에 append 한다.
+                flushing = true;
+                batch = pending;
+                pending = spare;
+                spare = null;
+                target = lastLsn;
+            }
+
+            boolean written = false;
+            IOException error = null;
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                channel.force(false);
+                written = true;
+            } catch (IOException e) {
+                error = e;
+                throw e;
+            } finally {
+                synchronized (this) {
+                    flushing = false;
+                    if (written) {
+                        batch.clear();
+                        spare = batch;
+                        durableLsn = target;
+                        syncCount++;
+                    } else {
+                        // 배치가 얼마나 쓰였는지 모르므로 버퍼를 재사용하지 않고 로그 전체를 실패로 표시한다.
+                        failure = error != null ? error : new IOException("group commit did not complete");
+                    }
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    private void checkNotFailed() throws IOException {
+        if (failure != null) {
+            throw new IOException("write-ahead log failed earlier; reopen it to recover", failure);
+        }
+    }
+
+    public synchronized long lastLsn() {
+        return lastLsn;
+    }
+
+    /** 디스크에 있다고 보장된 마지막 LSN */
+    public synchronized long durableLsn() {
+        return durableLsn;
+    }
+
+    public synchronized long syncCount() {
+        return syncCount;
+    }
+
+    /** 체크포인트로 모든 레코드가 페이지 파일에 반영된 뒤 로그를 비운다. LSN 은 계속 이어진다. */
+    public synchronized void reset() throws IOException {
+        checkNotFailed();
+        if (durableLsn < lastLsn) {
+            throw new IllegalStateException("cannot reset a log with uncommitted records");
+        }
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            commit(lastLsn());
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package DataStructure.NonLinear.BTree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * fsync 가 실패하는 채널로 WriteAheadLog 의 실패 처리를 확인한다.
+ *
+ * force 가 실패한 배치의 LSN 이 durable 로 보고되지 않는지, 그 뒤의 append/commit 이 모두 실패하는지,
+ * 기다리던 팔로워도 성공으로 돌아오지 않는지 본다. 어긋나면 IllegalStateException 을 던진다.
+ */
+public class WriteAheadLogCheck {
+    public static void main(String[] args) throws Exception {
+        for (WriteAheadLog.Mode mode : WriteAheadLog.Mode.values()) {
+            checkFailedForce(mode);
+        }
+        checkWaitingFollower();
+        System.out.println("all write-ahead log failure checks passed");
+    }
+
+    // 첫 fsync 는 성공하고 두 번째 fsync 가 실패한다.
+    private static void checkFailedForce(WriteAheadLog.Mode mode) throws IOException {
+        Path file = Files.createTempFile("wal-check", ".log");
+        FailingChannel channel = new FailingChannel(file, 1);
+        WriteAheadLog wal = new WriteAheadLog(channel, mode, 0);
+        long first = wal.append(WriteAheadLog.INSERT, 1, new byte[]{1});
+        wal.commit(first);
+        expect(wal.durableLsn() == first, mode + ": first record should be durable");
+
+        long second;
+        if (mode == WriteAheadLog.Mode.SYNC_EACH) {
+            expectFailure(() -> wal.append(WriteAheadLog.INSERT, 2, new byte[]{2}), mode + ": append with failing force");
+            second = first + 1;
+        } else {
+            second = wal.append(WriteAheadLog.INSERT, 2, new byte[]{2});
+            expectFailure(() -> wal.commit(second), mode + ": commit with failing force");
+        }
+        expect(wal.durableLsn() == first, mode + ": failed record reported durable");
+
+        channel.failAfter = Integer.MAX_VALUE;    // 채널이 회복되어도 로그는 실패 상태로 남아야 한다.
+        expectFailure(() -> wal.append(WriteAheadLog.INSERT, 3, new byte[]{3}), mode + ": append after failure");
+        expectFailure(() -> wal.commit(second), mode + ": commit after failure");
+        expect(wal.durableLsn() == first, mode + ": durable LSN moved after failure");
+
+        expectFailure(wal::close, mode + ": close of a failed log");    // durable 이 아닌 레코드가 남아 commit 이 실패한다.
+        expect(!channel.isOpen(), mode + ": channel left open after close");
+        Files.deleteIfExists(file);
+    }
+
+    // 리더의 fsync 가 막혀 있는 동안 기다리던 팔로워는 리더가 실패하면 같이 실패해야 한다.
+    private static void checkWaitingFollower() throws Exception {
+        Path file = Files.createTempFile("wal-check", ".log");
+        FailingChannel channel = new FailingChannel(file, 0);
+        channel.blockForce = true;
+        WriteAheadLog wal = new WriteAheadLog(channel, WriteAheadLog.Mode.GROUP, 0);
+        long first = wal.append(WriteAheadLog.INSERT, 1, new byte[]{1});
+        IOException[] leaderError = new IOException[1];
+        Thread leader = new Thread(() -> {
+            try {
+                wal.commit(first);
+            } catch (IOException e) {
+                leaderError[0] = e;
+            }
+        });
+        leader.start();
+        channel.awaitForce();
+
+        long second = wal.append(WriteAheadLog.INSERT, 2, new byte[]{2});
+        IOException[] followerError = new IOException[1];
+        Thread follower = new Thread(() -> {
+            try {
+                wal.commit(second);
+            } catch (IOException e) {
+                followerError[0] = e;
+            }
+        });
+        follower.start();
+        Thread.sleep(50);
+        channel.releaseForce();
+        leader.join();
+        follower.join();
+
+        expect(leaderError[0] != null, "GROUP: leader commit should fail");
+        expect(followerError[0] != null, "GROUP: waiting follower should fail");
+        expect(wal.durableLsn() == 0, "GROUP: failed batch reported durable");
+        expectFailure(wal::close, "GROUP: close of a failed log");
+        expect(!channel.isOpen(), "GROUP: channel left open after close");
+        Files.deleteIfExists(file);
+    }
+
+    private interface Action {
+        void run() throws IOException;
+    }
+
+    private static void expectFailure(Action action, String what) {
+        try {
+            action.run();
+        } catch (IOException expected) {
+            return;
+        }
+        throw new IllegalStateException(what + ": expected IOException");
+    }
+
+    private static void expect(boolean condition, String what) {
+        if (!condition) {
+            throw new IllegalStateException(what);
+        }
+    }
+
+    /** 실제 파일 채널에 위임하되 force 가 failAfter 번 성공한 뒤부터 실패한다. */
+    private static final class FailingChannel extends FileChannel {
+        private final FileChannel delegate;
+        private final Object lock = new Object();
+        private volatile int failAfter;
+        private int forces;
+        private boolean blockForce;
+        private boolean forceStarted;
+
+        FailingChannel(Path file, int failAfter) throws IOException {
+            this.delegate = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.failAfter = failAfter;
+        }
+
+        void awaitForce() throws InterruptedException {
+            synchronized (lock) {
+                while (!forceStarted) {
+                    lock.wait();
+                }
+            }
+        }
+
+        void releaseForce() {
+            synchronized (lock) {
+                blockForce = false;
+                lock.notifyAll();
+            }
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            synchronized (lock) {
+                forceStarted = true;
+                lock.notifyAll();
+                while (blockForce) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("interrupted", e);
+                    }
+                }
+            }
+            if (forces++ >= failAfter) {
+                throw new IOException("simulated fsync failure");
+            }
+            delegate.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return delegate.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
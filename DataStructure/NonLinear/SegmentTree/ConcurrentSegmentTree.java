@@ -0,0 +1,231 @@
+package DataStructure.NonLinear.SegmentTree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 여러 스레드가 동시에 더하고 질의하는 구간 합 세그먼트 트리. 잠금이 없다.
+ *
+ * 배치는 IterativeSegmentTree 와 같은 2N 이다. add(i, delta) 는 잎과 모든 조상에 delta 를 원자적으로 더한다.
+ * 덧셈은 순서와 상관없이 같은 결과를 내므로 노드 하나하나는 잠금 없이도 "자기 아래에 도착한 delta 의 합" 으로 정확하다.
+ * 모든 add 가 루트를 지나므로 위쪽 TOP_NODES 개 노드는 LongAdder 로 나눠 담아 코어 간 캐시 라인 경합을 줄인다.
+ *
+ * 질의는 노드 O(log N) 개를 차례로 읽으므로 한 시점의 스냅샷은 아니다. 대신 다음이 보장된다.
+ * <ul>
+ *     <li>질의 결과에는 질의 시작 전에 끝난 add 가 모두 들어 있고, 질의가 끝난 뒤에 시작한 add 는 들어 있지 않다.</li>
+ *     <li>set 을 쓰지 않고 delta 가 모두 0 이상이면(카운터) 같은 구간을 나중에 질의한 값은 앞의 값보다 작지 않다.</li>
+ *     <li>동시에 진행 중인 add 가 없으면 정확한 합이다.</li>
+ * </ul>
+ * 인덱스는 RangeSum 과 같이 1-based 이다.
+ */
+public class ConcurrentSegmentTree {
+    private static final int TOP_NODES = 64;
+
+    private final int n;
+    private final int topNodes;
+    private final AtomicLongArray tree;    // 노드 topNodes .. 2n - 1
+    private final LongAdder[] top;         // 노드 1 .. topNodes - 1
+
+    /** 원소 n 개가 모두 0 인 트리 */
+    public ConcurrentSegmentTree(int n) {
+        this(new long[n + 1]);
+    }
+
+    /** arr 은 1-based 배열이다. (arr[0] 은 쓰지 않고 arr[1..N] 이 원소) */
+    public ConcurrentSegmentTree(long[] arr) {
+        this.n = arr.length - 1;
+        if (n < 1) {
+            throw new IllegalArgumentException("at least one element is required");
+        }
+        this.topNodes = Math.min(TOP_NODES, n);
+        long[] sums = new long[2 * n];
+        System.arraycopy(arr, 1, sums, n, n);
+        for (int p = n - 1; p > 0; p--) {
+            sums[p] = sums[2 * p] + sums[2 * p + 1];
+        }
+        this.tree = new AtomicLongArray(sums);
+        this.top = new LongAdder[topNodes];
+        for (int p = 1; p < topNodes; p++) {
+            top[p] = new LongAdder();
+            top[p].add(sums[p]);
+        }
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /** arr[index] 에 delta 를 더한다. */
+    public void add(int index, long delta) {
+        checkRange(index, index);
+        int p = n + index - 1;
+        tree.getAndAdd(p, delta);
+        propagate(p >> 1, delta);
+    }
+
+    /**
+     * arr[index] 를 value 로 바꾼다. 잎을 원자적으로 바꾸고 이전 값과의 차이만 조상에 더하므로
+     * 같은 인덱스에 set 과 add 가 섞여도 조상의 합은 잎과 어긋나지 않는다.
+     */
+    public void set(int index, long value) {
+        checkRange(index, index);
+        int p = n + index - 1;
+        long old = tree.getAndSet(p, value);
+        propagate(p >> 1, value - old);
+    }
+
+    public long get(int index) {
+        checkRange(index, index);
+        return tree.get(n + index - 1);
+    }
+
+    /** arr[left..right] 의 합 */
+    public long query(int left, int right) {
+        checkRange(left, right);
+        long result = 0;
+        for (int l = n + left - 1, r = n + right; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) result += node(l++);
+            if ((r & 1) == 1) result += node(--r);
+        }
+        return result;
+    }
+
+    private void propagate(int p, long delta) {
+        if (delta == 0) return;
+        for (; p >= topNodes; p >>= 1) {
+            tree.getAndAdd(p, delta);
+        }
+        for (; p > 0; p >>= 1) {
+            top[p].add(delta);
+        }
+    }
+
+    private long node(int p) {
+        return p < topNodes ? top[p].sum() : tree.get(p);
+    }
+
+    private void checkRange(int left, int right) {
+        if (left < 1 || right > n || left > right) {
+            throw new IndexOutOfBoundsException("range [" + left + ", " + right + "] out of [1, " + n + "]");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int N = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 16;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(4, Runtime.getRuntime().availableProcessors());
+        long millis = 1000;
+
+        // 더하기 90%, 구간 합 10%. 비교 대상은 IterativeSegmentTree 하나를 전역 잠금으로 감싼 것이다.
+        IterativeSegmentTree locked = new IterativeSegmentTree(new long[N + 1], LongMonoid.SUM);
+        ConcurrentSegmentTree concurrent = new ConcurrentSegmentTree(N);
+
+        System.out.println("available processors = " + Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %18s %18s%n", "threads", "global lock ops/s", "lock-free ops/s");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double globalLock = throughput(threads, millis, N, new Counter() {
+                @Override
+                public void add(int index, long delta) {
+                    synchronized (locked) {
+                        locked.update(index, locked.get(index) + delta);
+                    }
+                }
+
+                @Override
+                public long query(int left, int right) {
+                    synchronized (locked) {
+                        return locked.query(left, right);
+                    }
+                }
+            });
+            double lockFree = throughput(threads, millis, N, new Counter() {
+                @Override
+                public void add(int index, long delta) {
+                    concurrent.add(index, delta);
+                }
+
+                @Override
+                public long query(int left, int right) {
+                    return concurrent.query(left, right);
+                }
+            });
+            System.out.printf("%-8d %,18.0f %,18.0f%n", threads, globalLock, lockFree);
+        }
+
+        // 생산자는 정해진 만큼 1 씩 더하고, 읽는 스레드는 같은 구간의 합이 줄어들지 않는지 본다.
+        ConcurrentSegmentTree counters = new ConcurrentSegmentTree(N);
+        int perThread = 200_000;
+        int producers = maxThreads;
+        int[] regressions = new int[1];
+        Thread reader = new Thread(() -> {
+            long previous = 0;
+            long total = (long) perThread * producers;
+            while (previous < total) {
+                long current = counters.query(1, N);
+                if (current < previous) regressions[0]++;
+                previous = current;
+            }
+        });
+        reader.start();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < producers; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < perThread; i++) {
+                    counters.add(1 + random.nextInt(N), 1);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        reader.join();
+
+        long leaves = 0;
+        for (int i = 1; i <= N; i++) {
+            leaves += counters.get(i);
+        }
+        System.out.printf("counters: producers=%d total=%d leaves=%d regressions=%d%n",
+                producers, counters.query(1, N), leaves, regressions[0]);
+    }
+
+    private interface Counter {
+        void add(int index, long delta);
+
+        long query(int left, int right);
+    }
+
+    private static double throughput(int threads, long millis, int N, Counter counter) throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long done = 0;
+                long sink = 0;
+                while ((done & 1023) != 0 || System.nanoTime() < deadline) {
+                    int index = 1 + random.nextInt(N);
+                    if (random.nextInt(10) == 0) {
+                        sink += counter.query(index, Math.min(N, index + random.nextInt(1024)));
+                    } else {
+                        counter.add(index, 1);
+                    }
+                    done++;
+                }
+                if (sink < 0) throw new IllegalStateException("negative sum");
+                ops.add(done);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return ops.sum() * 1000.0 / millis;
+    }
+}
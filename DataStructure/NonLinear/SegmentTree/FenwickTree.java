@@ -0,0 +1,150 @@
+package DataStructure.NonLinear.SegmentTree;
+
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * 펜윅 트리(Binary Indexed Tree). 점 갱신 / 구간 합만 필요할 때 RangeSum 대신 쓴다.
+ *
+ * tree[i] 는 arr[i - lowbit(i) + 1 .. i] 의 합이다. (lowbit(i) = i & -i)
+ * 누적 합은 i 에서 lowbit 를 빼 가며, 갱신은 lowbit 를 더해 가며 반복문 하나로 끝난다.
+ * 배열은 long N + 1 개로 RangeSum 의 4N 보다 작고 재귀도 없다.
+ * arr 의 현재 값은 따로 들고 있지 않으므로 update(index, value) 는 query(index, index) 로 이전 값을 구한다.
+ */
+public class FenwickTree implements RangeSumQuery {
+    private final int n;
+    private final long[] tree;
+
+    /** 원소 n 개가 모두 0 인 트리 */
+    public FenwickTree(int n) {
+        this(new long[n + 1]);
+    }
+
+    /** arr 은 1-based 배열이다. (arr[0] 은 쓰지 않고 arr[1..N] 이 원소) */
+    public FenwickTree(long[] arr) {
+        this.n = arr.length - 1;
+        if (n < 1) {
+            throw new IllegalArgumentException("at least one element is required");
+        }
+        this.tree = build(arr);
+    }
+
+    // 각 칸을 바로 위 칸(i + lowbit(i))에 한 번씩만 더하면 O(N) 에 만들어진다.
+    static long[] build(long[] arr) {
+        long[] tree = arr.clone();
+        tree[0] = 0;
+        int n = arr.length - 1;
+        for (int i = 1; i <= n; i++) {
+            int parent = i + (i & -i);
+            if (parent <= n) tree[parent] += tree[i];
+        }
+        return tree;
+    }
+
+    static long prefix(long[] tree, int index) {
+        long sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    static void add(long[] tree, int index, long delta) {
+        for (int i = index; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    /** arr[1..index] 의 합 */
+    public long prefix(int index) {
+        if (index < 0 || index > n) {
+            throw new IndexOutOfBoundsException("index " + index + " out of [0, " + n + "]");
+        }
+        return prefix(tree, index);
+    }
+
+    @Override
+    public long query(int left, int right) {
+        checkRange(left, right);
+        return prefix(tree, right) - prefix(tree, left - 1);
+    }
+
+    @Override
+    public void add(int index, long delta) {
+        checkRange(index, index);
+        add(tree, index, delta);
+    }
+
+    @Override
+    public void update(int index, long value) {
+        checkRange(index, index);
+        add(tree, index, value - query(index, index));
+    }
+
+    private void checkRange(int left, int right) {
+        if (left < 1 || right > n || left > right) {
+            throw new IndexOutOfBoundsException("range [" + left + ", " + right + "] out of [1, " + n + "]");
+        }
+    }
+
+    // 같은 연산열을 RangeSum, FenwickTree, RangeFenwickTree 에 돌려 ns/op 를 비교한다.
+    // 빠르게 보는 용도다. 구현끼리 비교할 숫자는 benchmarks 모듈의 RangeSumQueryJmhBenchmark 로 잰다.
+    public static void main(String[] args) {
+        int N = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+        int ops = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        int warmup = 3;
+        int iterations = 5;
+
+        Random random = new Random(42);
+        long[] arr = new long[N + 1];
+        for (int i = 1; i <= N; i++) {
+            arr[i] = random.nextInt(1_000_000);
+        }
+        int[] kind = new int[ops];     // 0: 구간 합, 1: 점 더하기
+        int[] a = new int[ops];
+        int[] b = new int[ops];
+        for (int i = 0; i < ops; i++) {
+            kind[i] = random.nextInt(2);
+            int x = 1 + random.nextInt(N);
+            int y = 1 + random.nextInt(N);
+            a[i] = Math.min(x, y);
+            b[i] = kind[i] == 0 ? Math.max(x, y) : random.nextInt(1_000) - 500;
+        }
+
+        String[] names = {"RangeSum (segment, 4N)", "FenwickTree (N+1)", "RangeFenwickTree (2N+4)"};
+        String[] memory = {32L * N + " B", 8L * (N + 1) + " B", 16L * (N + 2) + " B"};
+        IntFunction<RangeSumQuery> factory = which -> which == 0 ? new RangeSum(arr)
+                : which == 1 ? new FenwickTree(arr) : new RangeFenwickTree(arr);
+
+        System.out.println(String.format("N = %d, ops = %d (query 50%% / add 50%%), %d warmup + %d measured",
+                N, ops, warmup, iterations));
+        System.out.println(String.format("%-26s %10s %10s %14s %22s", "implementation", "ns/op", "stddev", "memory", "checksum"));
+        for (int which = 0; which < names.length; which++) {
+            RangeSumQuery tree = factory.apply(which);
+            double[] samples = new double[iterations];
+            long checksum = 0;
+            for (int it = 0; it < warmup + iterations; it++) {
+                long start = System.nanoTime();
+                long check = 0;
+                for (int i = 0; i < ops; i++) {
+                    if (kind[i] == 0) check += tree.query(a[i], b[i]);
+                    else tree.add(a[i], b[i]);
+                }
+                long elapsed = System.nanoTime() - start;
+                if (it >= warmup) samples[it - warmup] = (double) elapsed / ops;
+                checksum += check;
+            }
+            double mean = 0;
+            for (double sample : samples) mean += sample / iterations;
+            double variance = 0;
+            for (double sample : samples) variance += (sample - mean) * (sample - mean) / iterations;
+            System.out.println(String.format("%-26s %10.1f %10.1f %14s %22d",
+                    names[which], mean, Math.sqrt(variance), memory[which], checksum));
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package DataStructure.NonLinear.SegmentTree;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * 재귀 없이 아래에서 위로 올라가는 세그먼트 트리.
+ *
+ * tree 의 크기는 2N 이다. 원소 i 는 잎 tree[n + i - 1] 에 있고, 노드 p 의 자식은 2p, 2p + 1 이다.
+ * RangeSum / RangeMax 처럼 4N 배열을 (start, end, node) 로 재귀하지 않고
+ * 잎에서 시작해 p >>= 1 로 올라가기만 하므로 호출 비용이 없고 배열도 절반이다.
+ *
+ * 구간을 합치는 연산은 {@link LongMonoid} 로 고른다. 왼쪽 결과와 오른쪽 결과를 따로 모아
+ * 마지막에 합치므로 교환법칙이 없는 연산도 순서가 지켜진다.
+ * 인덱스는 RangeSum / RangeMax 와 같이 1-based 이다.
+ */
+public class IterativeSegmentTree {
+    private final int n;
+    private final long[] tree;
+    private final LongMonoid monoid;
+
+    // updateAll 용 작업 공간. 한 번 만들면 다시 쓰므로 호출마다 할당하지 않는다.
+    private int[] frontier = new int[0];
+    private int[] next = new int[0];
+    private int[] stamp;            // stamp[p] == round 면 이번 단계에서 이미 담긴 노드
+    private int round;
+
+    /** arr 은 1-based 배열이다. (arr[0] 은 쓰지 않고 arr[1..N] 이 원소) */
+    public IterativeSegmentTree(long[] arr, LongMonoid monoid) {
+        this.n = arr.length - 1;
+        if (n < 1) {
+            throw new IllegalArgumentException("at least one element is required");
+        }
+        this.monoid = monoid;
+        this.tree = new long[2 * n];
+        System.arraycopy(arr, 1, tree, n, n);
+        for (int p = n - 1; p > 0; p--) {
+            tree[p] = monoid.combine(tree[2 * p], tree[2 * p + 1]);
+        }
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public long get(int index) {
+        checkRange(index, index);
+        return tree[n + index - 1];
+    }
+
+    /** arr[left..right] 를 monoid 로 합친 값 */
+    public long query(int left, int right) {
+        checkRange(left, right);
+        return queryUnchecked(left, right);
+    }
+
+    private long queryUnchecked(int left, int right) {
+        long resultLeft = monoid.identity();
+        long resultRight = monoid.identity();
+        // [l, r) 반열린 구간. l 이 오른쪽 자식이면 그 노드만 쓰고 오른쪽으로, r 이 오른쪽 자식이면 왼쪽 형제를 쓴다.
+        for (int l = n + left - 1, r = n + right; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) resultLeft = monoid.combine(resultLeft, tree[l++]);
+            if ((r & 1) == 1) resultRight = monoid.combine(tree[--r], resultRight);
+        }
+        return monoid.combine(resultLeft, resultRight);
+    }
+
+    /** arr[index] 를 value 로 바꾼다. */
+    public void update(int index, long value) {
+        checkRange(index, index);
+        int p = n + index - 1;
+        tree[p] = value;
+        for (p >>= 1; p > 0; p >>= 1) {
+            tree[p] = monoid.combine(tree[2 * p], tree[2 * p + 1]);
+        }
+    }
+
+    /**
+     * arr[idx[i]] 를 vals[i] 로 한꺼번에 바꾼다. 같은 인덱스가 여러 번 나오면 마지막 값이 남는다.
+     *
+     * 잎을 모두 먼저 쓰고, 바뀐 잎의 부모들만 한 단계씩 위로 올라가며 다시 계산한다.
+     * 같은 부모는 단계마다 한 번만 계산하므로 인덱스가 몰려 있을수록 update 를 k 번 부르는 것보다 싸다.
+     * 인덱스를 모두 확인한 뒤에 쓰므로 범위를 벗어난 인덱스가 있으면 아무것도 바뀌지 않는다.
+     */
+    public void updateAll(int[] idx, long[] vals) {
+        if (idx.length != vals.length) {
+            throw new IllegalArgumentException("idx and vals differ in length: " + idx.length + " != " + vals.length);
+        }
+        for (int index : idx) {
+            checkRange(index, index);
+        }
+        ensureScratch(Math.min(idx.length, n));
+
+        int count = 0;
+        nextRound();
+        for (int i = 0; i < idx.length; i++) {
+            int p = n + idx[i] - 1;
+            tree[p] = vals[i];
+            count = enqueue(frontier, count, p >> 1);
+        }
+        // 2N 배치에서는 잎의 깊이가 다를 수 있다. 자식이 다시 계산되면 부모가 다음 단계에 또 담기므로
+        // 부모의 마지막 계산은 항상 모든 자식보다 뒤에 온다.
+        while (count > 0) {
+            int nextCount = 0;
+            nextRound();
+            for (int i = 0; i < count; i++) {
+                int p = frontier[i];
+                tree[p] = monoid.combine(tree[2 * p], tree[2 * p + 1]);
+                nextCount = enqueue(next, nextCount, p >> 1);
+            }
+            int[] t = frontier;
+            frontier = next;
+            next = t;
+            count = nextCount;
+        }
+    }
+
+    /** out[i] = query(left[i], right[i]). 범위를 벗어난 쌍이 있으면 out 을 건드리지 않고 예외를 던진다. */
+    public void queryAll(int[] left, int[] right, long[] out) {
+        if (left.length != right.length || out.length < left.length) {
+            throw new IllegalArgumentException("left, right and out lengths do not match: "
+                    + left.length + ", " + right.length + ", " + out.length);
+        }
+        for (int i = 0; i < left.length; i++) {
+            checkRange(left[i], right[i]);
+        }
+        for (int i = 0; i < left.length; i++) {
+            out[i] = queryUnchecked(left[i], right[i]);
+        }
+    }
+
+    private int enqueue(int[] queue, int count, int p) {
+        if (p == 0 || stamp[p] == round) return count;
+        stamp[p] = round;
+        queue[count] = p;
+        return count + 1;
+    }
+
+    private void nextRound() {
+        if (++round == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            round = 1;
+        }
+    }
+
+    // 한 단계에 담기는 노드는 잎 개수(k)와 내부 노드 개수(n - 1)를 넘지 않는다.
+    private void ensureScratch(int capacity) {
+        if (stamp == null) stamp = new int[n];
+        if (frontier.length < capacity) {
+            frontier = new int[capacity];
+            next = new int[capacity];
+        }
+    }
+
+    private void checkRange(int left, int right) {
+        if (left < 1 || right > n || left > right) {
+            throw new IndexOutOfBoundsException("range [" + left + ", " + right + "] out of [1, " + n + "]");
+        }
+    }
+
+    // 재귀 구현(RangeSum / RangeMax)과 같은 연산열을 돌려 ns/op 를 비교한다.
+    public static void main(String[] args) {
+        int N = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+        int ops = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        Random random = new Random(42);
+        long[] arr = new long[N + 1];
+        for (int i = 1; i <= N; i++) {
+            arr[i] = random.nextInt(1_000_000);
+        }
+        // 0: 질의, 1: 갱신. 질의 80%, 갱신 20%
+        int[] kind = new int[ops];
+        int[] a = new int[ops];
+        int[] b = new int[ops];
+        for (int i = 0; i < ops; i++) {
+            kind[i] = random.nextInt(10) < 8 ? 0 : 1;
+            int x = 1 + random.nextInt(N);
+            int y = 1 + random.nextInt(N);
+            a[i] = Math.min(x, y);
+            b[i] = kind[i] == 0 ? Math.max(x, y) : random.nextInt(1_000_000);
+        }
+
+        System.out.println(String.format("N = %d, ops = %d (query 80%% / update 20%%)", N, ops));
+        System.out.println(String.format("%-28s %10s %14s", "implementation", "ns/op", "checksum"));
+        for (int round = 0; round < 3; round++) {  // 앞의 두 번은 워밍업
+            boolean print = round == 2;
+            report(print, "RangeSum (recursive, 4N)", () -> {
+                RangeSum tree = new RangeSum(arr);
+                long check = 0;
+                for (int i = 0; i < ops; i++) {
+                    if (kind[i] == 0) check += tree.query(a[i], b[i]);
+                    else tree.update(a[i], b[i]);
+                }
+                return check;
+            }, ops);
+            report(print, "Iterative SUM (2N)", () -> {
+                IterativeSegmentTree tree = new IterativeSegmentTree(arr, LongMonoid.SUM);
+                long check = 0;
+                for (int i = 0; i < ops; i++) {
+                    if (kind[i] == 0) check += tree.query(a[i], b[i]);
+                    else tree.update(a[i], b[i]);
+                }
+                return check;
+            }, ops);
+            report(print, "RangeMax (recursive, 4N)", () -> {
+                RangeMax tree = new RangeMax(arr, false);     // 갱신이 섞이므로 스파스 테이블 없이
+                long check = 0;
+                for (int i = 0; i < ops; i++) {
+                    if (kind[i] == 0) check += tree.query(a[i], b[i]);
+                    else tree.update(a[i], b[i]);
+                }
+                return check;
+            }, ops);
+            report(print, "Iterative MAX (2N)", () -> {
+                IterativeSegmentTree tree = new IterativeSegmentTree(arr, LongMonoid.MAX);
+                long check = 0;
+                for (int i = 0; i < ops; i++) {
+                    if (kind[i] == 0) check += tree.query(a[i], b[i]);
+                    else tree.update(a[i], b[i]);
+                }
+                return check;
+            }, ops);
+        }
+
+        // 틱마다 k 개의 인덱스를 갱신한다. 한 구간에 몰린 경우와 흩어진 경우를 나눠 본다.
+        int k = 4096;
+        int ticks = Math.max(1, ops / k);
+        int[] idx = new int[k];
+        long[] vals = new long[k];
+        System.out.println();
+        System.out.println(String.format("batch update: %d ticks x %d indexes", ticks, k));
+        System.out.println(String.format("%-28s %10s %14s", "implementation", "ns/index", "checksum"));
+        for (int round = 0; round < 3; round++) {
+            boolean print = round == 2;
+            for (boolean clustered : new boolean[]{true, false}) {
+                String label = clustered ? "clustered" : "scattered";
+                report(print, "update x k, " + label, () -> {
+                    IterativeSegmentTree tree = new IterativeSegmentTree(arr, LongMonoid.SUM);
+                    Random r = new Random(7);
+                    for (int t = 0; t < ticks; t++) {
+                        fillBatch(r, N, clustered, idx, vals);
+                        for (int i = 0; i < k; i++) tree.update(idx[i], vals[i]);
+                    }
+                    return tree.query(1, N);
+                }, ticks * k);
+                report(print, "updateAll, " + label, () -> {
+                    IterativeSegmentTree tree = new IterativeSegmentTree(arr, LongMonoid.SUM);
+                    Random r = new Random(7);
+                    for (int t = 0; t < ticks; t++) {
+                        fillBatch(r, N, clustered, idx, vals);
+                        tree.updateAll(idx, vals);
+                    }
+                    return tree.query(1, N);
+                }, ticks * k);
+            }
+        }
+    }
+
+    private static void fillBatch(Random r, int N, boolean clustered, int[] idx, long[] vals) {
+        int width = Math.min(N, idx.length * 4);
+        int base = 1 + r.nextInt(N - width + 1);
+        for (int i = 0; i < idx.length; i++) {
+            idx[i] = clustered ? base + r.nextInt(width) : 1 + r.nextInt(N);
+            vals[i] = r.nextInt(1_000_000);
+        }
+    }
+
+    private static void report(boolean print, String name, LongSupplier run, int ops) {
+        long start = System.nanoTime();
+        long checksum = run.getAsLong();
+        long elapsed = System.nanoTime() - start;
+        if (print) {
+            System.out.println(String.format("%-28s %10.1f %14d", name, (double) elapsed / ops, checksum));
+        }
+    }
+}
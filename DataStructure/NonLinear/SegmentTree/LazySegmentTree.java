@@ -0,0 +1,264 @@
+package DataStructure.NonLinear.SegmentTree;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.util.StringTokenizer;
+
+/**
+ * 구간 더하기 / 구간 합·최댓값·최솟값을 지원하는 lazy propagation 세그먼트 트리.
+ *
+ * RangeSum / RangeMax 는 한 점씩 갱신하므로 구간 [l, r] 에 같은 값을 더하려면 (r - l + 1) 번 update 해야 한다.
+ * 여기서는 구간을 완전히 덮는 노드에 더할 값을 lazy 로 걸어 두고, 그 아래로 내려갈 일이 생길 때만 자식에게 넘긴다.
+ * 그래서 구간 갱신도 질의와 같은 O(log N) 이다.
+ *
+ * 한 노드가 합/최댓값/최솟값을 함께 들고 있어 트리 하나로 세 질의를 모두 처리한다.
+ * 구간에 delta 를 더하면 합은 delta * 길이만큼, 최댓값과 최솟값은 delta 만큼 바뀐다.
+ */
+public class LazySegmentTree {
+    private final int n;
+    private final long[] sum;
+    private final long[] max;
+    private final long[] min;
+    private final long[] lazy;     // 자식들에게 아직 더하지 않은 값
+
+    /** 원소 n 개가 모두 0 인 트리 */
+    public LazySegmentTree(int n) {
+        this(new long[n + 1]);
+    }
+
+    /** arr 은 1-based 배열이다. (arr[0] 은 쓰지 않고 arr[1..N] 이 원소) */
+    public LazySegmentTree(long[] arr) {
+        this.n = arr.length - 1;
+        if (n < 1) {
+            throw new IllegalArgumentException("at least one element is required");
+        }
+        sum = new long[4 * n];
+        max = new long[4 * n];
+        min = new long[4 * n];
+        lazy = new long[4 * n];
+        init(arr, 1, n, 1);
+    }
+
+    public int size() {
+        return n;
+    }
+
+    /** arr[left..right] 에 delta 를 더한다. */
+    public void add(int left, int right, long delta) {
+        checkRange(left, right);
+        add(1, n, left, right, 1, delta);
+    }
+
+    /** arr[index] 를 value 로 바꾼다. */
+    public void set(int index, long value) {
+        checkRange(index, index);
+        set(1, n, index, 1, value);
+    }
+
+    public long get(int index) {
+        return sum(index, index);
+    }
+
+    /** arr[left..right] 의 합 */
+    public long sum(int left, int right) {
+        checkRange(left, right);
+        return querySum(1, n, left, right, 1);
+    }
+
+    /** arr[left..right] 의 최댓값 */
+    public long max(int left, int right) {
+        checkRange(left, right);
+        return queryMax(1, n, left, right, 1);
+    }
+
+    /** arr[left..right] 의 최솟값 */
+    public long min(int left, int right) {
+        checkRange(left, right);
+        return queryMin(1, n, left, right, 1);
+    }
+
+    private void init(long[] arr, int start, int end, int node) {
+        if(start == end) {
+            sum[node] = max[node] = min[node] = arr[start];
+            return;
+        }
+        int mid = (start + end) / 2;
+        init(arr, start, mid, node * 2);
+        init(arr, mid + 1, end, node * 2 + 1);
+        pull(node);
+    }
+
+    private void add(int start, int end, int left, int right, int node, long delta) {
+        if(right < start || end < left) return;
+        if(left <= start && end <= right) {
+            apply(node, end - start + 1, delta);
+            return;
+        }
+        push(start, end, node);
+        int mid = (start + end) / 2;
+        add(start, mid, left, right, node * 2, delta);
+        add(mid + 1, end, left, right, node * 2 + 1, delta);
+        pull(node);
+    }
+
+    private void set(int start, int end, int index, int node, long value) {
+        if(start == end) {
+            sum[node] = max[node] = min[node] = value;
+            return;
+        }
+        push(start, end, node);
+        int mid = (start + end) / 2;
+        if(index <= mid) set(start, mid, index, node * 2, value);
+        else set(mid + 1, end, index, node * 2 + 1, value);
+        pull(node);
+    }
+
+    private long querySum(int start, int end, int left, int right, int node) {
+        if(right < start || end < left) return 0;
+        if(left <= start && end <= right) return sum[node];
+        push(start, end, node);
+        int mid = (start + end) / 2;
+        return querySum(start, mid, left, right, node * 2) + querySum(mid + 1, end, left, right, node * 2 + 1);
+    }
+
+    private long queryMax(int start, int end, int left, int right, int node) {
+        if(right < start || end < left) return Long.MIN_VALUE;
+        if(left <= start && end <= right) return max[node];
+        push(start, end, node);
+        int mid = (start + end) / 2;
+        return Math.max(queryMax(start, mid, left, right, node * 2), queryMax(mid + 1, end, left, right, node * 2 + 1));
+    }
+
+    private long queryMin(int start, int end, int left, int right, int node) {
+        if(right < start || end < left) return Long.MAX_VALUE;
+        if(left <= start && end <= right) return min[node];
+        push(start, end, node);
+        int mid = (start + end) / 2;
+        return Math.min(queryMin(start, mid, left, right, node * 2), queryMin(mid + 1, end, left, right, node * 2 + 1));
+    }
+
+    // 노드가 덮는 구간 전체에 delta 를 더한다. 자식에게는 lazy 로 미뤄 둔다.
+    private void apply(int node, int length, long delta) {
+        sum[node] += delta * length;
+        max[node] += delta;
+        min[node] += delta;
+        lazy[node] += delta;
+    }
+
+    // 자식으로 내려가기 전에 미뤄 둔 값을 넘긴다.
+    private void push(int start, int end, int node) {
+        if(lazy[node] == 0) return;
+        int mid = (start + end) / 2;
+        apply(node * 2, mid - start + 1, lazy[node]);
+        apply(node * 2 + 1, end - mid, lazy[node]);
+        lazy[node] = 0;
+    }
+
+    private void pull(int node) {
+        sum[node] = sum[node * 2] + sum[node * 2 + 1];
+        max[node] = Math.max(max[node * 2], max[node * 2 + 1]);
+        min[node] = Math.min(min[node * 2], min[node * 2 + 1]);
+    }
+
+    private void checkRange(int left, int right) {
+        if (left < 1 || right > n || left > right) {
+            throw new IndexOutOfBoundsException("range [" + left + ", " + right + "] out of [1, " + n + "]");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
+
+        // 1) 배열 크기 입력
+        System.out.print("배열의 크기(N)을 입력: ");
+        int N = Integer.parseInt(br.readLine());
+
+        long[] arr = new long[N + 1];      // 1-based index 사용
+
+        // 2) 배열 원소 입력
+        System.out.println(N + "개의 배열 원소를 입력해 주세요.");
+        StringTokenizer st = new StringTokenizer(br.readLine());
+        for(int i = 1; i <= N; i++) {
+            arr[i] = Long.parseLong(st.nextToken());
+        }
+
+        // 3) 세그먼트 트리 초기화
+        LazySegmentTree tree = new LazySegmentTree(arr);
+
+        // 4) 사용자에게 명령어 안내
+        System.out.println("====================================");
+        System.out.println("[사용 방법]");
+        System.out.println(" 1) add left right delta");
+        System.out.println("     - arr[left..right]에 delta를 더함");
+        System.out.println(" 2) sum | max | min left right");
+        System.out.println("     - arr[left..right] 구간 합 / 최댓값 / 최솟값을 출력");
+        System.out.println(" 3) q 또는 quit");
+        System.out.println("     - 프로그램 종료");
+        System.out.println("====================================");
+
+        while(true) {
+            System.out.print("명령어 입력 >> ");
+            String line = br.readLine();
+            if(line == null) break;
+            if(line.trim().isEmpty()) {
+                continue; // 공백 입력이 들어오면 무시
+            }
+
+            st = new StringTokenizer(line);
+            String cmd = st.nextToken();
+
+            // 종료 조건
+            if(cmd.equals("q") || cmd.equals("quit")) {
+                System.out.println("프로그램을 종료합니다.");
+                break;
+            }
+            // 구간 더하기
+            else if(cmd.equals("add")) {
+                if(st.countTokens() < 3) {
+                    System.out.println("add 명령어 사용법: add left right delta");
+                    continue;
+                }
+                int left = Integer.parseInt(st.nextToken());
+                int right = Integer.parseInt(st.nextToken());
+                long delta = Long.parseLong(st.nextToken());
+
+                // 범위 확인(1 <= left <= right <= N)
+                if(left < 1 || right > N || left > right) {
+                    System.out.println("잘못된 범위입니다.");
+                    continue;
+                }
+
+                tree.add(left, right, delta);
+                System.out.println(String.format("arr[%d..%d]에 %d를 더했습니다.", left, right, delta));
+            }
+            // 구간 질의
+            else if(cmd.equals("sum") || cmd.equals("max") || cmd.equals("min")) {
+                if(st.countTokens() < 2) {
+                    System.out.println(cmd + " 명령어 사용법: " + cmd + " left right");
+                    continue;
+                }
+                int left = Integer.parseInt(st.nextToken());
+                int right = Integer.parseInt(st.nextToken());
+
+                if(left < 1 || right > N || left > right) {
+                    System.out.println("잘못된 범위입니다.");
+                    continue;
+                }
+
+                long result = cmd.equals("sum") ? tree.sum(left, right)
+                        : cmd.equals("max") ? tree.max(left, right) : tree.min(left, right);
+                System.out.println(String.format("arr[%d..%d] %s: %d", left, right, cmd, result));
+            }
+            // 그 외 명령어 처리
+            else {
+                System.out.println("알 수 없는 명령어입니다. (add / sum / max / min / q / quit)");
+                continue;
+            }
+
+            for(int i = 1; i <= N; i++) {
+                System.out.print(tree.get(i) + " ");
+            }
+            System.out.println();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package DataStructure.NonLinear.SegmentTree;
+
+import java.util.function.LongBinaryOperator;
+
+/**
+ * 세그먼트 트리가 구간을 합치는 연산. combine 은 결합법칙을 만족하고 identity 는 항등원이어야 한다.
+ * long 을 그대로 주고받으므로 박싱이 없다.
+ */
+public interface LongMonoid {
+    long identity();
+
+    long combine(long a, long b);
+
+    LongMonoid SUM = of(0, Long::sum);
+    LongMonoid MAX = of(Long.MIN_VALUE, Math::max);
+    LongMonoid MIN = of(Long.MAX_VALUE, Math::min);
+    LongMonoid XOR = of(0, (a, b) -> a ^ b);
+    /** gcd(0, x) = x 이므로 0 이 항등원이다. 결과는 항상 0 이상이다. */
+    LongMonoid GCD = of(0, LongMonoid::gcd);
+
+    static LongMonoid of(long identity, LongBinaryOperator op) {
+        return new LongMonoid() {
+            @Override
+            public long identity() {
+                return identity;
+            }
+
+            @Override
+            public long combine(long a, long b) {
+                return op.applyAsLong(a, b);
+            }
+        };
+    }
+
+    private static long gcd(long a, long b) {
+        a = Math.abs(a);
+        b = Math.abs(b);
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
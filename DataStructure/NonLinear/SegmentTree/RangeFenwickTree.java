@@ -0,0 +1,88 @@
+package DataStructure.NonLinear.SegmentTree;
+
+/**
+ * 구간 더하기 / 구간 합을 지원하는 펜윅 트리 두 개짜리 변형.
+ *
+ * 구간 [l, r] 에 d 를 더하면 i 까지의 누적 합은 i 에 대한 일차식만큼 바뀐다.
+ * 그래서 기울기를 b1 에, 보정값을 b2 에 점 갱신으로 기록하고 prefix(i) = sum(b1, i) * i - sum(b2, i) 로 구한다.
+ * LazySegmentTree 와 같은 O(log N) 이지만 합만 필요하면 배열이 long 2(N + 2) 개로 훨씬 작고 재귀도 없다.
+ */
+public class RangeFenwickTree implements RangeSumQuery {
+    private final int n;
+    private final long[] b1;
+    private final long[] b2;
+
+    /** 원소 n 개가 모두 0 인 트리 */
+    public RangeFenwickTree(int n) {
+        this(new long[n + 1]);
+    }
+
+    /** arr 은 1-based 배열이다. (arr[0] 은 쓰지 않고 arr[1..N] 이 원소) */
+    public RangeFenwickTree(long[] arr) {
+        this.n = arr.length - 1;
+        if (n < 1) {
+            throw new IllegalArgumentException("at least one element is required");
+        }
+        // arr[i] 를 [i, i] 구간 더하기로 보고 두 차분 배열을 만든 뒤 FenwickTree 와 같은 O(N) 빌드를 한다.
+        // r + 1 자리가 N + 1 까지 갈 수 있으므로 한 칸 더 둔다.
+        long[] d1 = new long[n + 2];
+        long[] d2 = new long[n + 2];
+        for (int i = 1; i <= n; i++) {
+            d1[i] += arr[i];
+            d1[i + 1] -= arr[i];
+            d2[i] += arr[i] * (i - 1);
+            d2[i + 1] -= arr[i] * i;
+        }
+        this.b1 = FenwickTree.build(d1);
+        this.b2 = FenwickTree.build(d2);
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    /** arr[left..right] 에 delta 를 더한다. */
+    public void add(int left, int right, long delta) {
+        checkRange(left, right);
+        FenwickTree.add(b1, left, delta);
+        FenwickTree.add(b1, right + 1, -delta);
+        FenwickTree.add(b2, left, delta * (left - 1));
+        FenwickTree.add(b2, right + 1, -delta * right);
+    }
+
+    /** arr[1..index] 의 합 */
+    public long prefix(int index) {
+        if (index < 0 || index > n) {
+            throw new IndexOutOfBoundsException("index " + index + " out of [0, " + n + "]");
+        }
+        return prefixUnchecked(index);
+    }
+
+    @Override
+    public long query(int left, int right) {
+        checkRange(left, right);
+        return prefixUnchecked(right) - prefixUnchecked(left - 1);
+    }
+
+    @Override
+    public void add(int index, long delta) {
+        add(index, index, delta);
+    }
+
+    @Override
+    public void update(int index, long value) {
+        checkRange(index, index);
+        add(index, index, value - query(index, index));
+    }
+
+    private long prefixUnchecked(int index) {
+        return FenwickTree.prefix(b1, index) * index - FenwickTree.prefix(b2, index);
+    }
+
+    private void checkRange(int left, int right) {
+        if (left < 1 || right > n || left > right) {
+            throw new IndexOutOfBoundsException("range [" + left + ", " + right + "] out of [1, " + n + "]");
+        }
+    }
+}
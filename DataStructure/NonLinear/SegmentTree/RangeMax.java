@@ -5,11 +5,62 @@ import java.io.InputStreamReader;
 import java.util.Arrays;
 import java.util.StringTokenizer;
 
+/**
+ * 구간 최댓값 세그먼트 트리.
+ *
+ * 한 번 만들고 질의만 하는 경우가 많아 처음에는 정적 모드로 시작한다. 정적 모드에서는
+ * sparse[k][i] = max(arr[i .. i + 2^k - 1]) 인 스파스 테이블을 O(N log N) 에 만들고,
+ * 구간을 길이 2^k 짜리 두 조각(겹쳐도 된다)으로 덮어 query 를 O(1) 에 답한다.
+ * 첫 update 가 오면 세그먼트 트리를 만들고 스파스 테이블을 버린 뒤 동적 모드(질의·갱신 O(log N))로 바뀐다.
+ */
 public class RangeMax {
-    static long[] arr;
-    static long[] tree;
+    private final int n;
+    private final long[] arr;
+    private long[] tree;        // 동적 모드에서만 있다.
+    private long[][] sparse;    // 정적 모드에서만 있다. sparse[0] 은 arr 그대로다.
+
+    /**
+     * arr 은 1-based 배열이다. (arr[0] 은 쓰지 않고 arr[1..N] 이 원소)
+     * 정적 모드로 시작하므로 스파스 테이블 long 약 N·log N 개를 먼저 할당한다.
+     * N = 2^20 이면 약 170MB 로, 세그먼트 트리만 만들던 때의 4N 개(약 32MB)보다 훨씬 크다.
+     * 바로 update 할 배열이라면 {@link #RangeMax(long[], boolean)} 에 false 를 넘긴다.
+     */
+    public RangeMax(long[] arr) {
+        this(arr, true);
+    }
+
+    /**
+     * staticMode 가 false 면 스파스 테이블 없이 처음부터 세그먼트 트리로 만든다.
+     * 만들자마자 갱신이 잦은 배열이라면 N log N 짜리 테이블을 만들었다 버리는 비용을 아낄 수 있다.
+     */
+    public RangeMax(long[] arr, boolean staticMode) {
+        this.n = arr.length - 1;
+        if (n < 1) {
+            throw new IllegalArgumentException("at least one element is required");
+        }
+        this.arr = arr.clone();
+        if (staticMode) {
+            buildSparse();
+        } else {
+            buildTree();
+        }
+    }
+
+    /** 아직 update 가 없어 스파스 테이블로 답하고 있으면 true */
+    public boolean isStatic() {
+        return sparse != null;
+    }
 
-    public static long init(int start, int end, int node) {
+    public int size() {
+        return n;
+    }
+
+    public long get(int index) {
+        checkIndex(index);
+        return arr[index];
+    }
+
+    private long init(int start, int end, int node) {
         if(start == end) {
             return tree[node] = arr[start];
         }
@@ -18,7 +69,52 @@ public class RangeMax {
         return tree[node] = Math.max(init(start, mid, node * 2), init(mid + 1, end, node * 2 + 1));
     }
 
-    public static long query(int start, int end, int left, int right, int node) {
+    // 길이가 2^k 인 구간의 최댓값을 k = 1, 2, ... 순서로 앞 단계 두 개를 합쳐 만든다.
+    private void buildSparse() {
+        int levels = 32 - Integer.numberOfLeadingZeros(n);
+        sparse = new long[levels][];
+        sparse[0] = arr;
+        for (int k = 1; k < levels; k++) {
+            long[] prev = sparse[k - 1];
+            int half = 1 << (k - 1);
+            long[] level = new long[n - (1 << k) + 2];
+            for (int i = 1; i + (1 << k) - 1 <= n; i++) {
+                level[i] = Math.max(prev[i], prev[i + half]);
+            }
+            sparse[k] = level;
+        }
+    }
+
+    private void buildTree() {
+        tree = new long[4 * n];
+        init(1, n, 1);
+    }
+
+    /** arr[left..right] 의 최댓값 */
+    public long query(int left, int right) {
+        checkRange(left, right);
+        long[][] table = sparse;
+        if (table != null) {
+            int k = 31 - Integer.numberOfLeadingZeros(right - left + 1);
+            return Math.max(table[k][left], table[k][right - (1 << k) + 1]);
+        }
+        return query(1, n, left, right, 1);
+    }
+
+    /** arr[index] 를 value 로 바꾼다. 정적 모드였다면 여기서 동적 모드로 바뀐다. */
+    public void update(int index, long value) {
+        checkIndex(index);
+        if (sparse != null) {
+            sparse = null;
+            arr[index] = value;
+            buildTree();
+            return;
+        }
+        update(1, n, 1, index, value);
+        arr[index] = value;
+    }
+
+    private long query(int start, int end, int left, int right, int node) {
         if(right < start || end < left) return Long.MIN_VALUE;
         if(left <= start && end <= right) return tree[node];
 
@@ -26,7 +122,7 @@ public class RangeMax {
         return Math.max(query(start, mid, left, right, node * 2), query(mid + 1, end, left, right, node * 2 + 1));
     }
 
-    public static void update(int start, int end, int node, int index, long value) {
+    private void update(int start, int end, int node, int index, long value) {
         if(index < start || end < index) return;
         if(start == end) {
             tree[node] = value;
@@ -40,6 +136,18 @@ public class RangeMax {
         tree[node] = Math.max(tree[node*2], tree[node*2+1]);
     }
 
+    private void checkIndex(int index) {
+        if (index < 1 || index > n) {
+            throw new IndexOutOfBoundsException("index " + index + " out of [1, " + n + "]");
+        }
+    }
+
+    private void checkRange(int left, int right) {
+        if (left < 1 || right > n || left > right) {
+            throw new IndexOutOfBoundsException("range [" + left + ", " + right + "] out of [1, " + n + "]");
+        }
+    }
+
     public static void main(String[] args) throws Exception {
         BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
 
@@ -47,8 +155,7 @@ public class RangeMax {
         System.out.print("배열의 크기(N)을 입력: ");
         int N = Integer.parseInt(br.readLine());
 
-        arr = new long[N + 1];      // 1-based index 사용
-        tree = new long[4 * N];     // 세그먼트 트리 배열
+        long[] arr = new long[N + 1];      // 1-based index 사용
 
         // 2) 배열 원소 입력
         System.out.println(N + "개의 배열 원소를 입력해 주세요.");
@@ -57,8 +164,8 @@ public class RangeMax {
             arr[i] = Long.parseLong(st.nextToken());
         }
 
-        // 3) 세그먼트 트리 초기화
-        init(1, N, 1);
+        // 3) 세그먼트 트리 초기화 (대화 중에 update 가 오므로 스파스 테이블 없이 만든다)
+        RangeMax tree = new RangeMax(arr, false);
 
         // 4) 사용자에게 명령어 안내
         System.out.println("====================================");
@@ -101,7 +208,7 @@ public class RangeMax {
                     continue;
                 }
 
-                long result = query(1, N, left, right, 1);
+                long result = tree.query(left, right);
                 System.out.println(String.format("arr[%d..%d] 최댓값: %d", left, right, result));
             }
             // 값 업데이트
@@ -119,7 +226,7 @@ public class RangeMax {
                     continue;
                 }
 
-                update(1, N, 1, index, newValue);
+                tree.update(index, newValue);
                 arr[index] = newValue; // 실제 배열도 갱신
                 System.out.println(String.format("arr[%d]가 %d로 업데이트 되었습니다.", index, newValue));
             }
@@ -5,11 +5,33 @@ import java.io.InputStreamReader;
 import java.util.Arrays;
 import java.util.StringTokenizer;
 
-public class RangeSum {
-    static long[] arr;
-    static long[] tree;
+public class RangeSum implements RangeSumQuery {
+    private final int n;
+    private final long[] arr;
+    private final long[] tree;
+
+    /** arr 은 1-based 배열이다. (arr[0] 은 쓰지 않고 arr[1..N] 이 원소) */
+    public RangeSum(long[] arr) {
+        this.n = arr.length - 1;
+        if (n < 1) {
+            throw new IllegalArgumentException("at least one element is required");
+        }
+        this.arr = arr.clone();
+        this.tree = new long[4 * n];
+        init(1, n, 1);
+    }
 
-    public static long init(int start, int end, int node) {
+    @Override
+    public int size() {
+        return n;
+    }
+
+    public long get(int index) {
+        checkIndex(index);
+        return arr[index];
+    }
+
+    private long init(int start, int end, int node) {
         if(start == end) {
             tree[node] = arr[start];
             return tree[node];
@@ -18,14 +40,34 @@ public class RangeSum {
         return tree[node] = init(start, mid, node * 2) + init(mid+1, end, node * 2 + 1);
     }
 
-    public static long query(int start, int end, int left, int right, int node) {
+    @Override
+    public long query(int left, int right) {
+        checkRange(left, right);
+        return query(1, n, left, right, 1);
+    }
+
+    @Override
+    public void add(int index, long delta) {
+        checkIndex(index);
+        update(1, n, 1, index, delta);
+        arr[index] += delta;
+    }
+
+    @Override
+    public void update(int index, long value) {
+        checkIndex(index);
+        update(1, n, 1, index, value - arr[index]);
+        arr[index] = value;
+    }
+
+    private long query(int start, int end, int left, int right, int node) {
         if(end < left || start > right) return 0;
         if(left <= start && end <= right) return tree[node];
         int mid = (start + end) / 2;
         return query(start, mid, left, right, node * 2) + query(mid+1, end, left, right, node * 2 + 1);
     }
 
-    public static void update(int start, int end, int node, int index, long diff) {
+    private void update(int start, int end, int node, int index, long diff) {
         if(index < start || index > end) return;
         tree[node] += diff;
         if(start == end) return;
@@ -35,6 +77,18 @@ public class RangeSum {
         update(mid + 1, end, node * 2 + 1, index, diff);
     }
 
+    private void checkIndex(int index) {
+        if (index < 1 || index > n) {
+            throw new IndexOutOfBoundsException("index " + index + " out of [1, " + n + "]");
+        }
+    }
+
+    private void checkRange(int left, int right) {
+        if (left < 1 || right > n || left > right) {
+            throw new IndexOutOfBoundsException("range [" + left + ", " + right + "] out of [1, " + n + "]");
+        }
+    }
+
     public static void main(String[] args) throws Exception {
         BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
 
@@ -42,8 +96,7 @@ public class RangeSum {
         System.out.print("배열의 크기(N)을 입력: ");
         int N = Integer.parseInt(br.readLine());
 
-        arr = new long[N + 1];      // 1-based index 사용
-        tree = new long[4 * N];     // 세그먼트 트리 배열
+        long[] arr = new long[N + 1];      // 1-based index 사용
 
         // 2) 배열 원소 입력
         System.out.println(N + "개의 배열 원소를 입력해 주세요.");
@@ -53,7 +106,7 @@ public class RangeSum {
         }
 
         // 3) 세그먼트 트리 초기화
-        init(1, N, 1);
+        RangeSum tree = new RangeSum(arr);
 
         // 4) 사용자에게 명령어 안내
         System.out.println("====================================");
@@ -96,7 +149,7 @@ public class RangeSum {
                     continue;
                 }
 
-                long result = query(1, N, left, right, 1);
+                long result = tree.query(left, right);
                 System.out.println(String.format("arr[%d..%d] 합: %d", left, right, result));
             }
             // 값 업데이트
@@ -114,8 +167,7 @@ public class RangeSum {
                     continue;
                 }
 
-                long diff = newValue - arr[index];
-                update(1, N, 1, index, diff);
+                tree.update(index, newValue);
                 arr[index] = newValue; // 실제 배열도 갱신
                 System.out.println(String.format("arr[%d]가 %d로 업데이트 되었습니다.", index, newValue));
             }
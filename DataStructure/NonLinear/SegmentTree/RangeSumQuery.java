@@ -0,0 +1,23 @@
+package DataStructure.NonLinear.SegmentTree;
+
+/**
+ * 점 갱신 / 구간 합 질의를 하는 자료구조의 공통 인터페이스. 인덱스는 1-based 이다.
+ *
+ * <ul>
+ *     <li>{@link RangeSum} : 재귀 세그먼트 트리. long 4N 개.</li>
+ *     <li>{@link FenwickTree} : 펜윅 트리. long N + 1 개, 반복문 하나로 끝난다.</li>
+ *     <li>{@link RangeFenwickTree} : 펜윅 트리 두 개. 구간 더하기까지 O(log N) 이다.</li>
+ * </ul>
+ */
+public interface RangeSumQuery {
+    int size();
+
+    /** arr[left..right] 의 합 */
+    long query(int left, int right);
+
+    /** arr[index] 에 delta 를 더한다. */
+    void add(int index, long delta);
+
+    /** arr[index] 를 value 로 바꾼다. */
+    void update(int index, long value);
+}
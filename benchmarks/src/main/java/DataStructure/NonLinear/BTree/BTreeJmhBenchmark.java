@@ -0,0 +1,178 @@
+package DataStructure.NonLinear.BTree;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * BTreeBenchmark 와 같은 연산과 키 분포를 JMH 로 잰다.
+ *
+ * 설정(degrees, size, workload)마다 새 JVM 을 띄우므로(@Fork) 앞 설정에서 쌓인 JIT 프로파일이 뒤 설정의 결과를 비틀지 않는다.
+ * 할당량은 -prof gc 의 gc.alloc.rate.norm (B/op) 으로 본다.
+ * 트리 높이는 search, mixed 의 설정마다 트리를 만든 직후 "# tree height" 줄로 한 번 찍는다. (BTreeBenchmark 표의 height 열)
+ * 높이는 반복마다 변하지 않는 값이라 반복마다 합산되는 @AuxCounters 로는 내지 않는다.
+ *
+ * <pre>
+ * cd benchmarks && mvn -B package
+ * java -jar target/benchmarks.jar BTreeJmhBenchmark -prof gc
+ * java -jar target/benchmarks.jar "BTreeJmhBenchmark.search" -p degrees=16,64 -p size=1000000 -p workload=ZIPFIAN -prof gc
+ * </pre>
+ * insert, delete 는 호출 한 번이 size 번의 연산이므로 평균 시간을 size 로 나누면 연산 하나의 시간이다.
+ * delete 의 gc.alloc.rate.norm 에는 호출마다 트리를 다시 채우는 할당도 들어간다.
+ */
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BTreeJmhBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Config {
+        @Param({"4", "16", "64", "256"})
+        public int degrees;
+
+        @Param({"100000", "1000000"})
+        public int size;
+
+        @Param({"UNIFORM", "ZIPFIAN", "SEQUENTIAL", "REVERSE"})
+        public String workload;
+
+        int[] stream;
+        String[] values;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            BTreeBenchmark.Workload w = BTreeBenchmark.Workload.valueOf(workload);
+            stream = BTreeBenchmark.keyStream(w, size, 42);
+            values = BTreeBenchmark.values();
+        }
+    }
+
+    /** search 용. 키 0 ~ size-1 이 모두 든 트리. */
+    @State(Scope.Thread)
+    public static class Filled {
+        BTree tree;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(Config config) {
+            tree = BTreeBenchmark.filledTree(config.degrees, config.size, config.values);
+            printHeight(config, tree);
+        }
+    }
+
+    /** delete 용. 호출마다 다시 채운다. 채우는 시간은 재지 않는다. */
+    @State(Scope.Thread)
+    public static class Refilled {
+        BTree tree;
+
+        @Setup(Level.Invocation)
+        public void setUp(Config config) {
+            tree = BTreeBenchmark.filledTree(config.degrees, config.size, config.values);
+        }
+    }
+
+    /** mixed 용. 키 공간 0 ~ 2size-1 의 짝수 키를 넣어 두고, 같은 공간에서 뽑은 키로 search/insert/delete 를 섞는다. */
+    @State(Scope.Thread)
+    public static class Mixed {
+        BTree tree;
+        int[] stream;
+        byte[] mix;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(Config config) {
+            tree = new BTree(config.degrees);
+            for (int key : BTreeBenchmark.permutation(2 * config.size, 7)) {
+                if ((key & 1) == 0) tree.insert(key, config.values[key & 1023]);
+            }
+            stream = BTreeBenchmark.keyStream(BTreeBenchmark.Workload.valueOf(config.workload), 2 * config.size, 42);
+            Random random = new Random(11);
+            mix = new byte[stream.length];
+            for (int i = 0; i < mix.length; i++) {
+                mix[i] = (byte) random.nextInt(4);
+            }
+            printHeight(config, tree);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public String search(Config config, Filled state) {
+        int i = state.next;
+        state.next = (i + 1) & (BTreeBenchmark.KEY_STREAM - 1);
+        return state.tree.search(config.stream[i]);
+    }
+
+    /** search 50%, insert 25%, delete 25%. 트리 크기는 대략 size 로 유지된다. */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void mixed(Config config, Mixed state, Blackhole blackhole) {
+        int i = state.next;
+        state.next = (i + 1) & (BTreeBenchmark.KEY_STREAM - 1);
+        int key = state.stream[i];
+        switch (state.mix[i]) {
+            case 0: state.tree.insert(key, config.values[key & 1023]); break;
+            case 1: state.tree.delete(key); break;
+            default: blackhole.consume(state.tree.search(key)); break;
+        }
+    }
+
+    /** 빈 트리에 분포대로 size 번 넣는다. */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public BTree insert(Config config) {
+        BTree tree = new BTree(config.degrees);
+        int[] stream = config.stream;
+        for (int i = 0; i < config.size; i++) {
+            int key = stream[i & (BTreeBenchmark.KEY_STREAM - 1)];
+            tree.insert(key, config.values[key & 1023]);
+        }
+        return tree;
+    }
+
+    /** 꽉 찬 트리에서 분포대로 size 번 지운다. */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public BTree delete(Config config, Refilled state) {
+        int[] stream = config.stream;
+        for (int i = 0; i < config.size; i++) {
+            state.tree.delete(stream[i & (BTreeBenchmark.KEY_STREAM - 1)]);
+        }
+        return state.tree;
+    }
+
+    // Trial 준비 중에 찍으므로 점수에는 들어가지 않는다. JMH 가 반복 머리말을 찍은 뒤라 줄을 바꿔 시작한다.
+    private static void printHeight(Config config, BTree tree) {
+        System.out.printf("%n# tree height: %d (degrees=%d, size=%d, workload=%s)%n",
+                tree.height(), config.degrees, config.size, config.workload);
+    }
+
+    // IDE 에서 바로 돌릴 때. gc 프로파일러를 켜서 B/op 도 함께 낸다.
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BTreeJmhBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,128 @@
+package DataStructure.NonLinear.SegmentTree;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * FenwickTree.main 과 같은 비교(RangeSum, FenwickTree, RangeFenwickTree)를 JMH 로 잰다.
+ *
+ * 구현과 크기마다 새 JVM 을 띄우므로(@Fork) 앞 구현에서 쌓인 JIT 프로파일이 뒤 구현의 결과를 비틀지 않는다.
+ * 연산열은 FenwickTree.main 처럼 seed 42 로 미리 만들어 두고 차례로 돌려 쓴다.
+ *
+ * <pre>
+ * cd benchmarks && mvn -B package
+ * java -jar target/benchmarks.jar RangeSumQueryJmhBenchmark -prof gc
+ * java -jar target/benchmarks.jar "RangeSumQueryJmhBenchmark.query" -p impl=FenwickTree,RangeFenwickTree -p size=1048576
+ * </pre>
+ */
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RangeSumQueryJmhBenchmark {
+    // 미리 만들어 두는 연산 수. 2의 거듭제곱이라 & 로 돌려 쓴다.
+    static final int OPS = 1 << 16;
+
+    @State(Scope.Thread)
+    public static class Tree {
+        @Param({"RangeSum", "FenwickTree", "RangeFenwickTree"})
+        public String impl;
+
+        @Param({"65536", "1048576"})
+        public int size;
+
+        RangeSumQuery tree;
+        byte[] kind;    // mixed 용. 0: 구간 합, 1: 점 더하기
+        int[] left;
+        int[] right;
+        long[] delta;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random random = new Random(42);
+            long[] arr = new long[size + 1];
+            for (int i = 1; i <= size; i++) {
+                arr[i] = random.nextInt(1_000_000);
+            }
+            tree = create(impl, arr);
+
+            kind = new byte[OPS];
+            left = new int[OPS];
+            right = new int[OPS];
+            delta = new long[OPS];
+            for (int i = 0; i < OPS; i++) {
+                kind[i] = (byte) random.nextInt(2);
+                int x = 1 + random.nextInt(size);
+                int y = 1 + random.nextInt(size);
+                left[i] = Math.min(x, y);
+                right[i] = Math.max(x, y);
+                delta[i] = random.nextInt(1_000) - 500;
+            }
+        }
+
+        int nextIndex() {
+            int i = next;
+            next = (i + 1) & (OPS - 1);
+            return i;
+        }
+    }
+
+    static RangeSumQuery create(String impl, long[] arr) {
+        switch (impl) {
+            case "RangeSum": return new RangeSum(arr);
+            case "FenwickTree": return new FenwickTree(arr);
+            case "RangeFenwickTree": return new RangeFenwickTree(arr);
+            default: throw new IllegalArgumentException("unknown implementation: " + impl);
+        }
+    }
+
+    @Benchmark
+    public long query(Tree state) {
+        int i = state.nextIndex();
+        return state.tree.query(state.left[i], state.right[i]);
+    }
+
+    @Benchmark
+    public void add(Tree state) {
+        int i = state.nextIndex();
+        state.tree.add(state.left[i], state.delta[i]);
+    }
+
+    /** 구간 합 50%, 점 더하기 50%. FenwickTree.main 의 연산 비율과 같다. */
+    @Benchmark
+    public long mixed(Tree state) {
+        int i = state.nextIndex();
+        if (state.kind[i] == 0) {
+            return state.tree.query(state.left[i], state.right[i]);
+        }
+        state.tree.add(state.left[i], state.delta[i]);
+        return 0;
+    }
+
+    // IDE 에서 바로 돌릴 때. gc 프로파일러를 켜서 B/op 도 함께 낸다.
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RangeSumQueryJmhBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}